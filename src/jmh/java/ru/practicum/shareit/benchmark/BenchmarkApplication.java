@@ -0,0 +1,40 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import java.util.stream.Stream;
+
+// Встроенная H2 вместо Postgres: схема создается Hibernate, миграции Flyway не запускаются.
+// Сводка букингов пересчитывается SQL-запросами PostgreSQL и в H2 выключена.
+@UtilityClass
+public class BenchmarkApplication {
+    private static final String[] H2_PROPERTIES = {
+            "spring.datasource.url=jdbc:h2:mem:shareit-benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+            "spring.datasource.driverClassName=org.h2.Driver",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.flyway.enabled=false",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.show_sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "shareit.booking-summary.enabled=false",
+            "shareit.outbox.relay.enabled=false",
+            "shareit.booking-sweeper.enabled=false",
+            "shareit.rate-limit.enabled=false",
+            "logging.level.root=WARN",
+            "logging.level.ru.practicum.shareit=WARN",
+            "logging.level.org.springframework.transaction.interceptor=WARN",
+            "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"
+    };
+
+    public ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(webApplicationType)
+                .properties(Stream.concat(Stream.of(H2_PROPERTIES), Stream.of(properties)).toArray(String[]::new))
+                .run();
+    }
+}
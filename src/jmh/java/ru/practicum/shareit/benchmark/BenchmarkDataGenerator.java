@@ -0,0 +1,121 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import ru.practicum.shareit.user.User;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@UtilityClass
+public class BenchmarkDataGenerator {
+    public static final long OWNER_ID = 1L;
+    public static final long BOOKER_ID = 2L;
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    public User owner() {
+        return User.builder().id(OWNER_ID).name("Владелец").email("owner@shareit.ru").build();
+    }
+
+    public User booker() {
+        return User.builder().id(BOOKER_ID).name("Арендатор").email("booker@shareit.ru").build();
+    }
+
+    public List<Item> items(int count) {
+        User owner = owner();
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> Item.builder()
+                        .id((long) i)
+                        .name("Предмет " + i)
+                        .description("Описание предмета номер " + i + " для синтетической нагрузки")
+                        .available(i % 5 != 0)
+                        .owner(owner)
+                        .build())
+                .toList();
+    }
+
+    public List<Booking> bookings(int count) {
+        User booker = booker();
+        List<Item> items = items(Math.max(1, count / 2));
+        return IntStream.range(0, count)
+                .mapToObj(i -> Booking.builder()
+                        .id((long) i + 1)
+                        .start(BASE_TIME.plusDays(i))
+                        .end(BASE_TIME.plusDays(i).plusHours(3))
+                        .item(items.get(i % items.size()))
+                        .booker(booker)
+                        .status(i % 3 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED)
+                        .build())
+                .toList();
+    }
+
+    public List<Comment> comments(int count) {
+        User author = booker();
+        List<Item> items = items(Math.max(1, count / 2));
+        return IntStream.range(0, count)
+                .mapToObj(i -> Comment.builder()
+                        .id((long) i + 1)
+                        .text("Отзыв " + i + ": все отлично, вещь в хорошем состоянии")
+                        .item(items.get(i % items.size()))
+                        .author(author)
+                        .created(BASE_TIME.plusMinutes(i))
+                        .build())
+                .toList();
+    }
+
+    public List<ItemWithBookingDto> itemsWithBookings(int count) {
+        List<Comment> comments = comments(count);
+        List<Item> items = items(count);
+        List<ItemWithBookingDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemWithBookingDto dto = ItemMapper.toItemWithBookingDto(items.get(i), BASE_TIME.minusDays(i),
+                    BASE_TIME.plusDays(i));
+            dto.setComments(List.of(CommentMapper.toCommentDto(comments.get(i))));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Владелец получает itemCount предметов, у каждого предмета один прошедший и один будущий букинг и один отзыв.
+    public void seed(JdbcTemplate jdbcTemplate, int itemCount) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", OWNER_ID, "Владелец",
+                "owner@shareit.ru");
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", BOOKER_ID, "Арендатор",
+                "booker@shareit.ru");
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 1; i <= itemCount; i++) {
+            items.add(new Object[]{i, "Предмет " + i, "Описание предмета " + i, true, OWNER_ID});
+            bookings.add(new Object[]{2 * i - 1, Timestamp.valueOf(now.minusDays(3)),
+                    Timestamp.valueOf(now.minusDays(2)), i, BOOKER_ID, BookingStatus.APPROVED.name(), BookingPhase.PAST.name()});
+            bookings.add(new Object[]{2 * i, Timestamp.valueOf(now.plusDays(2)), Timestamp.valueOf(now.plusDays(3)),
+                    i, BOOKER_ID, BookingStatus.WAITING.name(), BookingPhase.FUTURE.name()});
+            comments.add(new Object[]{i, "Отзыв о предмете " + i, i, BOOKER_ID, Timestamp.valueOf(now.minusDays(1))});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO items (id, name, description, is_available, owner_id) " +
+                "VALUES (?, ?, ?, ?, ?)", items);
+        batchInsert(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, " +
+                "phase, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", bookings);
+        batchInsert(jdbcTemplate, "INSERT INTO comments (id, text, item_id, author_id, created) " +
+                "VALUES (?, ?, ?, ?, ?)", comments);
+    }
+
+    private void batchInsert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += JDBC_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + JDBC_BATCH_SIZE)));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Размер ответа и CPU сериализации списка букингов: вложенный BookingDto против нормализованного
+// CompactBookingsDto в JSON, Smile и CBOR, с gzip и без. Размеры печатаются один раз при подготовке.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingSerializationBenchmark {
+    @Param({"20", "1000"})
+    private int size;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"nested", "normalized"})
+    private String shape;
+
+    private ObjectMapper objectMapper;
+    private Object payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> SmileMapper.builder().addModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+            case "cbor" -> CBORMapper.builder().addModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+            default -> JsonMapper.builder().addModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        };
+        List<BookingDto> bookings = BenchmarkDataGenerator.bookings(size).stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+        payload = shape.equals("normalized") ? BookingMapper.toCompactBookingsDto(bookings) : bookings;
+        System.out.printf("%n%s/%s/%d: %d байт, gzip %d байт%n", format, shape, size, serialize().length,
+                serializeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, payload);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.item.service.ItemService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        BenchmarkDataGenerator.seed(context.getBean(JdbcTemplate.class), size);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemWithBookingDto> getItems() {
+        return itemService.getItems(BenchmarkDataGenerator.OWNER_ID);
+    }
+
+    @Benchmark
+    public List<ItemWithBookingDto> getItemsOverview() {
+        return itemService.getItemsOverview(BenchmarkDataGenerator.OWNER_ID);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<ItemWithBookingDto> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        items = BenchmarkDataGenerator.itemsWithBookings(size);
+    }
+
+    @Benchmark
+    public byte[] itemsWithBookingToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Сравнивает пропускную способность и p99 одного и того же набора запросов
+// на пуле платформенных потоков Tomcat и в режиме виртуальных потоков.
+public class LoadTestHarness {
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 200);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.duration", 20));
+    private static final int ITEMS = Integer.getInteger("load.items", 100);
+
+    public static void main(String[] args) throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("%-10s %10s %8s %12s %10s %10s%n", "mode", "requests", "errors", "req/s", "p50, ms",
+                "p99, ms");
+        platform.print("platform");
+        virtual.print("virtual");
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "server.port=0", "spring.threads.virtual.enabled=" + virtualThreads)) {
+            BenchmarkDataGenerator.seed(context.getBean(JdbcTemplate.class), ITEMS);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port;
+            List<URI> uris = List.of(
+                    URI.create(baseUrl + "/items"),
+                    URI.create(baseUrl + "/bookings/owner?state=ALL&size=20"),
+                    URI.create(baseUrl + "/items/search?text=" + URLEncoder.encode("Предмет 1",
+                            StandardCharsets.UTF_8) + "&size=20"));
+            return load(uris);
+        }
+    }
+
+    private static Result load(List<URI> uris) throws Exception {
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + DURATION.toNanos();
+        List<long[]> latencies = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().executor(workers).build()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                int offset = i;
+                futures.add(workers.submit(() -> worker(client, uris, offset, deadline, errors)));
+            }
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static long[] worker(HttpClient client, List<URI> uris, int offset, long deadline, AtomicLong errors) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        for (int i = offset; System.nanoTime() < deadline; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                    .header("X-Sharer-User-Id", String.valueOf(BenchmarkDataGenerator.OWNER_ID))
+                    .GET()
+                    .build();
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - started;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+        void print(String mode) {
+            double seconds = DURATION.toMillis() / 1000.0;
+            System.out.printf("%-10s %10d %8d %12.1f %10.2f %10.2f%n", mode, sortedLatencies.length, errors,
+                    sortedLatencies.length / seconds, percentile(0.50), percentile(0.99));
+        }
+
+        private double percentile(double quantile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentMapper;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<Booking> bookings;
+    private List<Item> items;
+    private List<Comment> comments;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bookings = BenchmarkDataGenerator.bookings(size);
+        items = BenchmarkDataGenerator.items(size);
+        comments = BenchmarkDataGenerator.comments(size);
+        lastBooking = LocalDateTime.now().minusDays(1);
+        nextBooking = LocalDateTime.now().plusDays(1);
+    }
+
+    @Benchmark
+    public void bookingToBookingDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingDto(booking));
+        }
+    }
+
+    @Benchmark
+    public void itemToItemWithBookingDto(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(ItemMapper.toItemWithBookingDto(item, lastBooking, nextBooking));
+        }
+    }
+
+    @Benchmark
+    public void commentToCommentDto(Blackhole blackhole) {
+        for (Comment comment : comments) {
+            blackhole.consume(CommentMapper.toCommentDto(comment));
+        }
+    }
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -41,4 +42,13 @@ public class Booking {
     @Column(name = "status", nullable = false)
     @Builder.Default
     private BookingStatus status = BookingStatus.WAITING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "phase", nullable = false)
+    @Builder.Default
+    private BookingPhase phase = BookingPhase.FUTURE;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
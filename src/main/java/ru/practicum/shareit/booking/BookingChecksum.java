@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking;
+
+public interface BookingChecksum {
+    Long getTotal();
+
+    Long getIdSum();
+}
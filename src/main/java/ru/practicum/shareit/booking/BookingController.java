@@ -1,15 +1,29 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -17,7 +31,11 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 @Validated
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto addBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -27,6 +45,13 @@ public class BookingController {
         return bookingService.addBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> addBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestBody @NotEmpty List<@Valid CreateBookingDto> bookingDtos) {
+        log.debug("Создание {} букингов пользователем с ID {}.", bookingDtos.size(), userId);
+        return bookingService.addBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approvingOfBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PathVariable @Positive Long bookingId,
@@ -43,17 +68,129 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByUserAndState(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                      @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<List<BookingDto>> getBookingsByUserAndState(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                      @RequestParam(defaultValue = "ALL")
+                                                                      BookingState state,
+                                                                      @RequestParam(defaultValue = "0")
+                                                                      @PositiveOrZero Integer from,
+                                                                      @RequestParam(required = false)
+                                                                      @Positive Integer size,
+                                                                      @RequestParam(required = false) String cursor) {
         log.debug("Получение списка букинга, созданного пользователем с ID {} в зависимости от состояния: {}.", userId,
                 state);
-        return bookingService.getBookingsByUserAndState(userId, state);
+        return withNextCursor(bookingService.getBookingsByUserAndState(userId, state, BookingCursor.decode(cursor),
+                toPage(from, size, cursor)), size);
+    }
+
+    @GetMapping("/compact")
+    public ResponseEntity<CompactBookingsDto> getCompactBookingsByUserAndState(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.debug("Получение нормализованного списка букинга, созданного пользователем с ID {} в зависимости " +
+                "от состояния: {}.", userId, state);
+        return withNextCursor(bookingService.getBookingsByUserAndState(userId, state, BookingCursor.decode(cursor),
+                toPage(from, size, cursor)), size, BookingMapper::toCompactBookingsDto);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportBookingsByUserAndState(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                              @RequestParam(defaultValue = "ALL") BookingState state) {
+        log.debug("Выгрузка букинга, созданного пользователем с ID {} в зависимости от состояния: {}.", userId, state);
+        return export(cursor -> bookingService.getBookingsByUserAndState(userId, state, cursor,
+                PageRequest.ofSize(EXPORT_PAGE_SIZE)));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getBookingsForAllItemsOfOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                          @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<List<BookingDto>> getBookingsForAllItemsOfOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                          @RequestParam(defaultValue = "ALL")
+                                                                          BookingState state,
+                                                                          @RequestParam(defaultValue = "0")
+                                                                          @PositiveOrZero Integer from,
+                                                                          @RequestParam(required = false)
+                                                                          @Positive Integer size,
+                                                                          @RequestParam(required = false)
+                                                                          String cursor) {
         log.debug("Получение списка букинга на вещи пользователя с ID {} в зависимости от состояния: {}", userId, state);
-        return bookingService.getBookingsForAllItemsOfOwner(userId, state);
+        return withNextCursor(bookingService.getBookingsForAllItemsOfOwner(userId, state, BookingCursor.decode(cursor),
+                toPage(from, size, cursor)), size);
+    }
+
+    @GetMapping("/owner/compact")
+    public ResponseEntity<CompactBookingsDto> getCompactBookingsForAllItemsOfOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+        log.debug("Получение нормализованного списка букинга на вещи пользователя с ID {} в зависимости " +
+                "от состояния: {}", userId, state);
+        return withNextCursor(bookingService.getBookingsForAllItemsOfOwner(userId, state, BookingCursor.decode(cursor),
+                toPage(from, size, cursor)), size, BookingMapper::toCompactBookingsDto);
+    }
+
+    @GetMapping(path = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportBookingsForAllItemsOfOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @RequestParam(defaultValue = "ALL")
+                                                                  BookingState state) {
+        log.debug("Выгрузка букинга на вещи пользователя с ID {} в зависимости от состояния: {}", userId, state);
+        return export(cursor -> bookingService.getBookingsForAllItemsOfOwner(userId, state, cursor,
+                PageRequest.ofSize(EXPORT_PAGE_SIZE)));
+    }
+
+    @GetMapping("/owner/summary")
+    public List<ItemBookingSummaryDto> getBookingSummaryOfOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Получение сводки букингов по вещам пользователя с ID {}.", userId);
+        return bookingService.getBookingSummaryOfOwner(userId);
+    }
+
+    private Pageable toPage(Integer from, Integer size, String cursor) {
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        if (cursor != null) {
+            return PageRequest.ofSize(size);
+        }
+        return OffsetPageRequest.of(from, size);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        return withNextCursor(bookings, size, Function.identity());
+    }
+
+    private <T> ResponseEntity<T> withNextCursor(List<BookingDto> bookings, Integer size,
+                                                 Function<List<BookingDto>, T> body) {
+        if (size == null || bookings.size() < size) {
+            return ResponseEntity.ok(body.apply(bookings));
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, BookingCursor.after(bookings.getLast()).encode())
+                .body(body.apply(bookings));
+    }
+
+    // Первая страница читается до начала ответа, чтобы ошибки доступа вернулись обычным статусом,
+    // дальше букинги выгружаются страницами по курсору и не накапливаются в памяти.
+    private StreamingResponseBody export(Function<BookingCursor, List<BookingDto>> pageLoader) {
+        List<BookingDto> firstPage = pageLoader.apply(BookingCursor.first());
+        return output -> {
+            List<BookingDto> page = firstPage;
+            while (!page.isEmpty()) {
+                writeLines(output, page);
+                if (page.size() < EXPORT_PAGE_SIZE) {
+                    break;
+                }
+                page = pageLoader.apply(BookingCursor.after(page.getLast()));
+            }
+        };
+    }
+
+    private void writeLines(OutputStream output, List<BookingDto> bookings) throws IOException {
+        for (BookingDto booking : bookings) {
+            output.write(objectMapper.writeValueAsBytes(booking));
+            output.write('\n');
+        }
+        output.flush();
     }
 }
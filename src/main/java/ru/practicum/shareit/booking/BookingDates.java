@@ -5,7 +5,7 @@ import java.time.LocalDateTime;
 public interface BookingDates {
     Long getItemId();
 
-    LocalDateTime getStart();
+    LocalDateTime getLastBooking();
 
-    LocalDateTime getEnd();
+    LocalDateTime getNextBooking();
 }
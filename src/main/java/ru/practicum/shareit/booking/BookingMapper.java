@@ -2,9 +2,19 @@ package ru.practicum.shareit.booking;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingDto;
+import ru.practicum.shareit.booking.dto.CompactBookingsDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @UtilityClass
 public class BookingMapper {
@@ -19,11 +29,50 @@ public class BookingMapper {
                 .build();
     }
 
+    public CompactBookingsDto toCompactBookingsDto(List<BookingDto> bookings) {
+        Map<Long, UserDto> users = new LinkedHashMap<>();
+        Map<Long, ItemDto> items = new LinkedHashMap<>();
+        List<CompactBookingDto> compactBookings = bookings.stream()
+                .map(booking -> {
+                    users.putIfAbsent(booking.getBooker().getId(), booking.getBooker());
+                    items.putIfAbsent(booking.getItem().getId(), booking.getItem());
+                    return CompactBookingDto.builder()
+                            .id(booking.getId())
+                            .start(booking.getStart())
+                            .end(booking.getEnd())
+                            .status(booking.getStatus())
+                            .bookerId(booking.getBooker().getId())
+                            .itemId(booking.getItem().getId())
+                            .build();
+                })
+                .toList();
+        return CompactBookingsDto.builder()
+                .bookings(compactBookings)
+                .users(List.copyOf(users.values()))
+                .items(List.copyOf(items.values()))
+                .build();
+    }
+
     public Booking toBookingCreate(CreateBookingDto bookingDto) {
         return Booking.builder()
                 .start(bookingDto.getStart())
                 .end(bookingDto.getEnd())
+                .phase(BookingPhase.of(bookingDto.getStart(), bookingDto.getEnd(), LocalDateTime.now()))
                 .build();
 
     }
+
+    public ItemBookingSummaryDto toItemBookingSummaryDto(ItemBookingSummary summary) {
+        return ItemBookingSummaryDto.builder()
+                .itemId(summary.getItemId())
+                .all(summary.getTotalCount())
+                .current(summary.getCurrentCount())
+                .past(summary.getPastCount())
+                .future(summary.getFutureCount())
+                .waiting(summary.getWaitingCount())
+                .rejected(summary.getRejectedCount())
+                .lastBooking(summary.getLastBooking())
+                .nextBooking(summary.getNextBooking())
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+// Фаза букинга по времени, хранится в bookings.phase. BookingSweeper продвигает ее только вперед
+// (FUTURE -> CURRENT -> PAST), поэтому сохраненная фаза может отставать от времени, но не опережать его.
+public enum BookingPhase {
+    FUTURE,
+    CURRENT,
+    PAST;
+
+    public static BookingPhase of(LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        if (end.isBefore(now)) {
+            return PAST;
+        }
+        return start.isAfter(now) ? FUTURE : CURRENT;
+    }
+}
@@ -1,39 +1,117 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
+    String SELECT_WITH_ITEM_AND_BOOKER = "SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker";
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end);
+    String AFTER_CURSOR = " AND (b.start < :cursorStart OR (b.start = :cursorStart AND b.id < :cursorId))";
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start);
+    String ORDER_BY_START_DESC = " ORDER BY b.start DESC, b.id DESC";
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
+    // Сохраненная фаза отстает от времени не больше чем на интервал BookingSweeper, поэтому к равенству по фазе
+    // добавляется проверка времени для тех немногих букингов, фаза которых еще не продвинута.
+    String PHASE_FUTURE = " AND b.phase = ru.practicum.shareit.booking.BookingPhase.FUTURE AND b.start > :now";
 
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.start <= :now AND b.end >= :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllByBookerIdAndCurrentTime(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+    String PHASE_CURRENT = " AND b.phase IN (ru.practicum.shareit.booking.BookingPhase.FUTURE, " +
+            "ru.practicum.shareit.booking.BookingPhase.CURRENT) AND b.start <= :now AND b.end >= :now";
 
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long bookerId);
+    String PHASE_PAST = " AND (b.phase = ru.practicum.shareit.booking.BookingPhase.PAST OR " +
+            "(b.phase IN (ru.practicum.shareit.booking.BookingPhase.FUTURE, " +
+            "ru.practicum.shareit.booking.BookingPhase.CURRENT) AND b.end < :now))";
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime end);
+    String LAST_AND_NEXT_BOOKING = "SELECT i.id AS itemId, " +
+            "(SELECT MAX(b.end) FROM Booking b WHERE b.item = i AND b.end < :now) AS lastBooking, " +
+            "(SELECT MIN(b.start) FROM Booking b WHERE b.item = i AND b.start > :now) AS nextBooking " +
+            "FROM Item i ";
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime start);
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.booker.id = :bookerId" + AFTER_CURSOR + ORDER_BY_START_DESC)
+    List<Booking> findAllByBookerId(@Param("bookerId") Long bookerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId, Pageable page);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.booker.id = :bookerId" + PHASE_PAST + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByBookerIdAndEndBefore(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") Long cursorId, Pageable page);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.start <= :now AND b.end >= :now " +
-            "ORDER BY b.start DESC")
-    List<Booking> findAllByOwnerIdAndCurrentTime(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.booker.id = :bookerId" + PHASE_FUTURE + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByBookerIdAndStartAfter(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId, Pageable page);
 
-    @Query("SELECT b.item.id as itemId, b.start as start, b.end as end FROM Booking b WHERE b.item.owner.id = :ownerId " +
-            "ORDER BY b.item.id, b.start ASC")
-    List<BookingDates> findAllBookingsByOwnerId(@Param("ownerId") Long ownerId);
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.booker.id = :bookerId AND b.status = :status" + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByBookerIdAndStatus(@Param("bookerId") Long bookerId, @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.booker.id = :bookerId" + PHASE_CURRENT + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByBookerIdAndCurrentTime(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE i.owner.id = :ownerId" + AFTER_CURSOR + ORDER_BY_START_DESC)
+    List<Booking> findAllByItemOwnerId(@Param("ownerId") Long ownerId,
+                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                       @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE i.owner.id = :ownerId" + PHASE_PAST + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByItemOwnerIdAndEndBefore(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                   @Param("cursorStart") LocalDateTime cursorStart,
+                                                   @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE i.owner.id = :ownerId" + PHASE_FUTURE + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByItemOwnerIdAndStartAfter(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                                    @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE i.owner.id = :ownerId AND b.status = :status" + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByItemOwnerIdAndStatus(@Param("ownerId") Long ownerId, @Param("status") BookingStatus status,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") Long cursorId, Pageable page);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE i.owner.id = :ownerId" + PHASE_CURRENT + AFTER_CURSOR +
+            ORDER_BY_START_DESC)
+    List<Booking> findAllByOwnerIdAndCurrentTime(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId, Pageable page);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(Long id);
+
+    @Query(SELECT_WITH_ITEM_AND_BOOKER + " WHERE b.id IN :ids")
+    List<Booking> findAllWithItemAndBookerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id AS id, b.booker.id AS bookerId, b.item.owner.id AS ownerId, b.start AS start, b.end AS end " +
+            "FROM Booking b WHERE b.id > :id ORDER BY b.id")
+    List<BookingTimes> findTimesByIdGreaterThan(@Param("id") Long id, Pageable page);
+
+    @Query("SELECT COUNT(b) AS total, COALESCE(SUM(b.id), 0) AS idSum FROM Booking b")
+    BookingChecksum checksum();
+
+    @Query(LAST_AND_NEXT_BOOKING + "WHERE i.id = :itemId")
+    Optional<BookingDates> findLastAndNextBookingByItemId(@Param("itemId") Long itemId,
+                                                          @Param("now") LocalDateTime now);
+
+    @Query(LAST_AND_NEXT_BOOKING + "WHERE i.owner.id = :ownerId")
+    List<BookingDates> findLastAndNextBookingsByOwnerId(@Param("ownerId") Long ownerId,
+                                                        @Param("now") LocalDateTime now);
 
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b WHERE b.booker.id = :bookerId " +
             "AND b.item.id = :itemId AND b.status = :status AND b.end < :end")
@@ -41,5 +119,52 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                            @Param("status") BookingStatus status,
                                                            @Param("end") LocalDateTime end);
 
-    List<BookingDates> findAllBookingsByItemId(Long itemId);
-}
\ No newline at end of file
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b WHERE b.item.id = :itemId " +
+            "AND b.status = :status AND b.start < :end AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId, @Param("status") BookingStatus status,
+                              @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Условные обновления статуса: проверка владельца и статуса WAITING выполняется в самом UPDATE, поэтому
+    // из двух параллельных запросов строку меняет только один. Результат - число измененных строк (0 или 1).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id = :bookingId " +
+            "AND b.status = :waiting AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateStatusIfWaiting(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId,
+                              @Param("waiting") BookingStatus waiting, @Param("status") BookingStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :approved, b.version = b.version + 1 WHERE b.id = :bookingId " +
+            "AND b.status = :waiting AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId) " +
+            "AND NOT EXISTS (SELECT o.id FROM Booking o WHERE o.item.id = b.item.id AND o.status = :approved " +
+            "AND o.start < b.end AND o.end > b.start)")
+    int approveIfWaitingAndFree(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId,
+                                @Param("waiting") BookingStatus waiting, @Param("approved") BookingStatus approved);
+
+    // Обход BookingSweeper: пачки берутся с SKIP LOCKED, чтобы не ждать строк, которые сейчас меняет
+    // подтверждение букинга или другой экземпляр приложения.
+    @Query(value = "SELECT id FROM bookings WHERE status = 'WAITING' AND start_date < :startedBefore " +
+            "ORDER BY start_date LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> findStaleWaitingIdsForUpdate(@Param("startedBefore") LocalDateTime startedBefore,
+                                            @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :expired, b.version = b.version + 1 WHERE b.id IN :ids " +
+            "AND b.status = :waiting")
+    int expireWaiting(@Param("ids") Collection<Long> ids, @Param("waiting") BookingStatus waiting,
+                      @Param("expired") BookingStatus expired);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE bookings SET phase = 'CURRENT' WHERE id IN (SELECT id FROM bookings " +
+            "WHERE phase = 'FUTURE' AND start_date <= :now ORDER BY start_date LIMIT :limit FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int advanceToCurrent(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE bookings SET phase = 'PAST' WHERE id IN (SELECT id FROM bookings " +
+            "WHERE phase = 'CURRENT' AND end_date < :now ORDER BY end_date LIMIT :limit FOR UPDATE SKIP LOCKED)",
+            nativeQuery = true)
+    int advanceToPast(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    List<Booking> findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(Collection<Long> itemIds, BookingStatus status,
+                                                                      LocalDateTime end, LocalDateTime start);
+}
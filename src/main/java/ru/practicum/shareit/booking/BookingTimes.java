@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+
+public interface BookingTimes {
+    Long getId();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
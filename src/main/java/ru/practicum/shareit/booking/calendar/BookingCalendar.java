@@ -0,0 +1,358 @@
+package ru.practicum.shareit.booking.calendar;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingChecksum;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingTimes;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Календарь букингов для состояний CURRENT, PAST и FUTURE. Для каждого букера и каждого владельца хранит букинги
+// в порядке запросов BookingRepository (start DESC, id DESC) в массивах long, время - в микросекундах UTC.
+// Граница состояния находится бинарным поиском, дальше букинги берутся подряд.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking-calendar.enabled", havingValue = "true")
+public class BookingCalendar {
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final long TIMELINE_ENTRY_BYTES = 96;
+    private static final long MICROS_PER_SECOND = 1_000_000;
+    private static final long NANOS_PER_MICRO = 1_000;
+
+    private final BookingRepository bookingRepository;
+    private final long maxMemoryBytes;
+    private final Counter mismatches;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Timelines timelines = new Timelines();
+    private Timelines building;
+    private boolean mismatchSeen;
+    private volatile long memoryBytes;
+    private volatile boolean ready;
+    private volatile boolean overBudget;
+
+    public BookingCalendar(BookingRepository bookingRepository,
+                           @Value("${shareit.booking-calendar.max-memory-bytes}") long maxMemoryBytes,
+                           MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.maxMemoryBytes = maxMemoryBytes;
+        Gauge.builder("shareit.booking.calendar.memory", this, BookingCalendar::getMemoryBytes)
+                .description("Оценка памяти, занятой календарем букингов")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.calendar.memory.budget", this, calendar -> calendar.maxMemoryBytes)
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.calendar.bookings", this, BookingCalendar::getSize)
+                .register(meterRegistry);
+        mismatches = Counter.builder("shareit.booking.calendar.reconcile.mismatches")
+                .description("Расхождения календаря букингов с базой, после которых календарь перестраивался")
+                .register(meterRegistry);
+    }
+
+    public static boolean supports(BookingState state) {
+        return state == BookingState.CURRENT || state == BookingState.PAST || state == BookingState.FUTURE;
+    }
+
+    // Пока идет загрузка, календарь не отвечает на запросы, а изменения пишутся и в старые, и в новые массивы.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        log.info("Построение календаря букингов.");
+        Timelines target = new Timelines();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            building = target;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long lastId = 0;
+        List<BookingTimes> page;
+        do {
+            page = bookingRepository.findTimesByIdGreaterThan(lastId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                page.forEach(times -> target.put(times.getId(), times.getBookerId(), times.getOwnerId(),
+                        toMicros(times.getStart()), toMicros(times.getEnd())));
+                updateMemoryBytes();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                lastId = page.getLast().getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE && !overBudget);
+        lock.writeLock().lock();
+        try {
+            if (!overBudget) {
+                timelines = target;
+                building = null;
+                updateMemoryBytes();
+                ready = !overBudget;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Календарь букингов построен: {} букингов, ~{} байт.", getSize(), getMemoryBytes());
+    }
+
+    // Сверяется число букингов и сумма их ID: так заметна и пропущенная вставка, и подмена одного букинга другим
+    // при равном числе строк. Даты букинга после создания не меняются, поэтому они в сверку не входят.
+    // Букинг мог быть уже закоммичен, но еще не добавлен в календарь после коммита, поэтому календарь
+    // перестраивается, только если расхождение повторилось на двух проверках подряд.
+    @Scheduled(initialDelayString = "${shareit.booking-calendar.reconcile-interval}",
+            fixedDelayString = "${shareit.booking-calendar.reconcile-interval}")
+    public void reconcile() {
+        if (!ready) {
+            return;
+        }
+        BookingChecksum expected = bookingRepository.checksum();
+        long actualSize;
+        long actualIdSum;
+        lock.readLock().lock();
+        try {
+            actualSize = timelines.size;
+            actualIdSum = timelines.idSum;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (expected.getTotal() == actualSize && expected.getIdSum() == actualIdSum) {
+            mismatchSeen = false;
+            return;
+        }
+        if (!mismatchSeen) {
+            mismatchSeen = true;
+            return;
+        }
+        mismatchSeen = false;
+        mismatches.increment();
+        log.warn("Календарь букингов разошелся с базой ({} в календаре, {} в базе) и будет перестроен.",
+                actualSize, expected.getTotal());
+        rebuild();
+    }
+
+    public boolean isServing() {
+        return ready && !overBudget;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return timelines.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putAllAfterCommit(List<Booking> bookings) {
+        List<long[]> entries = bookings.stream()
+                .map(booking -> new long[]{booking.getId(), booking.getBooker().getId(),
+                        booking.getItem().getOwner().getId(), toMicros(booking.getStart()),
+                        toMicros(booking.getEnd())})
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putAll(entries);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putAll(entries);
+            }
+        });
+    }
+
+    public List<Long> findBookerBookings(long bookerId, BookingState state, LocalDateTime now,
+                                         LocalDateTime cursorStart, long cursorId, Pageable page) {
+        lock.readLock().lock();
+        try {
+            return find(timelines.byBooker.get(bookerId), state, now, cursorStart, cursorId, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findOwnerBookings(long ownerId, BookingState state, LocalDateTime now,
+                                        LocalDateTime cursorStart, long cursorId, Pageable page) {
+        lock.readLock().lock();
+        try {
+            return find(timelines.byOwner.get(ownerId), state, now, cursorStart, cursorId, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> find(Timelines.Timeline timeline, BookingState state, LocalDateTime now,
+                            LocalDateTime cursorStart, long cursorId, Pageable page) {
+        if (timeline == null) {
+            return List.of();
+        }
+        return timeline.find(state, toMicros(now), toMicros(cursorStart), cursorId,
+                page.isPaged() ? page.getOffset() : 0, page.isPaged() ? page.getPageSize() : Long.MAX_VALUE);
+    }
+
+    private void putAll(List<long[]> entries) {
+        if (overBudget) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (long[] entry : entries) {
+                timelines.put(entry[0], entry[1], entry[2], entry[3], entry[4]);
+                if (building != null) {
+                    building.put(entry[0], entry[1], entry[2], entry[3], entry[4]);
+                }
+            }
+            updateMemoryBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateMemoryBytes() {
+        memoryBytes = timelines.bytes + (building == null ? 0 : building.bytes);
+        if (memoryBytes > maxMemoryBytes) {
+            log.warn("Календарь букингов превысил бюджет памяти ({} > {} байт) и отключен, " +
+                    "состояния букингов читаются из базы.", memoryBytes, maxMemoryBytes);
+            overBudget = true;
+            timelines = new Timelines();
+            building = null;
+            memoryBytes = 0;
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / NANOS_PER_MICRO;
+    }
+
+    private static final class Timelines {
+        private final Map<Long, Timeline> byBooker = new HashMap<>();
+        private final Map<Long, Timeline> byOwner = new HashMap<>();
+        private int size;
+        private long idSum;
+        private long bytes;
+
+        void put(long id, long bookerId, long ownerId, long start, long end) {
+            if (timeline(byBooker, bookerId).add(id, start, end)) {
+                timeline(byOwner, ownerId).add(id, start, end);
+                size++;
+                idSum += id;
+            }
+        }
+
+        private Timeline timeline(Map<Long, Timeline> byKey, long key) {
+            return byKey.computeIfAbsent(key, k -> {
+                bytes += TIMELINE_ENTRY_BYTES + 3L * Long.BYTES * INITIAL_CAPACITY;
+                return new Timeline();
+            });
+        }
+
+        private final class Timeline {
+            private long[] ids = new long[INITIAL_CAPACITY];
+            private long[] starts = new long[INITIAL_CAPACITY];
+            private long[] ends = new long[INITIAL_CAPACITY];
+            private int size;
+            private long maxSpan;
+
+            boolean add(long id, long start, long end) {
+                int position = firstAfter(start, id);
+                if (position > 0 && ids[position - 1] == id && starts[position - 1] == start) {
+                    return false;
+                }
+                if (size == ids.length) {
+                    bytes += 3L * Long.BYTES * size;
+                    ids = Arrays.copyOf(ids, size * 2);
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                System.arraycopy(starts, position, starts, position + 1, size - position);
+                System.arraycopy(ends, position, ends, position + 1, size - position);
+                ids[position] = id;
+                starts[position] = start;
+                ends[position] = end;
+                size++;
+                maxSpan = Math.max(maxSpan, end - start);
+                return true;
+            }
+
+            // Те же условия, что в запросах BookingRepository: FUTURE - start > now, CURRENT - start <= now <= end,
+            // PAST - end < now. Букинг, начавшийся раньше now - maxSpan, уже закончился, поэтому CURRENT не
+            // просматривает хвост истории.
+            List<Long> find(BookingState state, long now, long cursorStart, long cursorId, long offset, long limit) {
+                int from = firstAfter(cursorStart, cursorId);
+                int to = size;
+                long minStart = Long.MIN_VALUE;
+                switch (state) {
+                    case BookingState.FUTURE -> to = firstAfter(now, Long.MAX_VALUE);
+                    case BookingState.CURRENT -> {
+                        from = Math.max(from, firstAfter(now, Long.MAX_VALUE));
+                        minStart = now - maxSpan;
+                    }
+                    case BookingState.PAST -> from = Math.max(from, firstAfter(now, Long.MIN_VALUE));
+                    default -> throw new IllegalArgumentException("Календарь не обслуживает состояние " + state);
+                }
+                List<Long> result = new ArrayList<>();
+                long skipped = 0;
+                for (int i = from; i < to && result.size() < limit && starts[i] >= minStart; i++) {
+                    boolean matches = switch (state) {
+                        case BookingState.CURRENT -> ends[i] >= now;
+                        case BookingState.PAST -> ends[i] < now;
+                        default -> true;
+                    };
+                    if (!matches) {
+                        continue;
+                    }
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        result.add(ids[i]);
+                    }
+                }
+                return result;
+            }
+
+            // Первая позиция, стоящая в порядке (start DESC, id DESC) строго после пары (start, id).
+            private int firstAfter(long start, long id) {
+                int low = 0;
+                int high = size;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (starts[mid] < start || starts[mid] == start && ids[mid] < id) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+                return low;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import java.util.List;
+
+// Нормализованный список букингов: каждый букер и предмет передается один раз, букинги ссылаются на них по ID.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactBookingsDto {
+    private List<CompactBookingDto> bookings;
+    private List<UserDto> users;
+    private List<ItemDto> items;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBookingSummaryDto {
+    private Long itemId;
+    private int all;
+    private int current;
+    private int past;
+    private int future;
+    private int waiting;
+    private int rejected;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+// Передает события слушателям @EventListener(BookingEventMessage.class) внутри приложения. Слушатели вызываются
+// синхронно в потоке ретранслятора, поэтому медленный слушатель замедляет разбор outbox, а не копит очередь.
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventBookingEventSink implements BookingEventSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String name() {
+        return "application";
+    }
+
+    @Override
+    public void publish(List<BookingEventMessage> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Строка outbox: пишется в одной транзакции с изменением букинга и удаляется после доставки во все приемники.
+// Событие, которое не удалось доставить max-attempts раз, откладывается (dead_lettered_at) и больше не выбирается:
+// чтобы отправить его повторно, достаточно обнулить dead_lettered_at и attempts.
+@Entity
+@Table(name = "booking_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = {"id"})
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_id_seq")
+    @SequenceGenerator(name = "booking_events_id_seq", sequenceName = "booking_events_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private BookingEventType type;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+
+    @Builder.Default
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "dead_lettered_at")
+    private LocalDateTime deadLetteredAt;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class BookingEventLogListener {
+    @EventListener
+    public void onBookingEvent(BookingEventMessage event) {
+        log.debug("Событие {} букинга с ID {} для владельца с ID {}.", event.getType(), event.getBookingId(),
+                event.getOwnerId());
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+import java.time.LocalDateTime;
+
+// Доставка "хотя бы один раз": одно событие может прийти повторно, получатели отбрасывают дубли по eventId.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEventMessage {
+    private Long eventId;
+    private BookingEventType type;
+    private Long bookingId;
+    private Long itemId;
+    private Long ownerId;
+    private Long bookerId;
+    private BookingStatus status;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private LocalDateTime occurredAt;
+}
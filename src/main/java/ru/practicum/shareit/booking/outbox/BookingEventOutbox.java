@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class BookingEventOutbox {
+    private final BookingEventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void record(Booking booking, BookingEventType type) {
+        recordAll(List.of(booking), type);
+    }
+
+    public void recordAll(List<Booking> bookings, BookingEventType type) {
+        LocalDateTime now = LocalDateTime.now();
+        eventRepository.saveAll(bookings.stream()
+                .map(booking -> BookingEvent.builder()
+                        .type(type)
+                        .bookingId(booking.getId())
+                        .payload(toPayload(booking, type, now))
+                        .created(now)
+                        .build())
+                .toList());
+    }
+
+    private String toPayload(Booking booking, BookingEventType type, LocalDateTime now) {
+        BookingEventMessage message = BookingEventMessage.builder()
+                .type(type)
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .occurredAt(now)
+                .build();
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие букинга " + booking.getId(), e);
+        }
+    }
+}
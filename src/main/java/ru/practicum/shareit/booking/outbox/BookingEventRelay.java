@@ -0,0 +1,272 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Ретранслятор outbox. Работает в отдельном виртуальном потоке: берет пачку событий с FOR UPDATE SKIP LOCKED,
+// отдает ее всем приемникам и удаляет в той же транзакции. Если приемник упал, транзакция откатывается
+// и пачка уходит повторно - доставка "хотя бы один раз". Приемники вызываются синхронно, поэтому outbox
+// разбирается со скоростью самого медленного из них, а не копит события в памяти.
+// Если пачка не доставлена, ее события отправляются по одному до первой ошибки: доставленные удаляются,
+// а у неудачного растет attempts. Событие с нечитаемым payload или не принятое max-attempts раз откладывается
+// (dead letter), чтобы одно "ядовитое" событие не держало outbox. После ошибки интервал опроса удваивается
+// до max-backoff.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.relay.enabled", havingValue = "true")
+public class BookingEventRelay {
+    private final BookingEventRepository eventRepository;
+    private final List<BookingEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration interval;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final Counter failures;
+    private final Counter deadLettered;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Map<String, Timer> sinkTimers = new HashMap<>();
+    private final AtomicLong pending = new AtomicLong();
+    private ScheduledExecutorService worker;
+    private int failuresInRow;
+
+    public BookingEventRelay(BookingEventRepository eventRepository,
+                             List<BookingEventSink> sinks,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.outbox.relay.batch-size}") int batchSize,
+                             @Value("${shareit.outbox.relay.interval}") Duration interval,
+                             @Value("${shareit.outbox.relay.max-backoff}") Duration maxBackoff,
+                             @Value("${shareit.outbox.relay.max-attempts}") int maxAttempts,
+                             MeterRegistry meterRegistry) {
+        this.eventRepository = eventRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+        failures = Counter.builder("shareit.outbox.relay.failures")
+                .description("Пачки событий, доставка которых не удалась и будет повторена")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("shareit.outbox.relay.dead-lettered")
+                .description("События, отложенные после нечитаемого payload или исчерпания попыток доставки")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("shareit.outbox.relay.batch")
+                .description("Число событий в доставленной пачке")
+                .register(meterRegistry);
+        lag = Timer.builder("shareit.outbox.relay.lag")
+                .description("Время от записи события в outbox до его доставки")
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("Недоставленные события в outbox на момент последнего опроса")
+                .register(meterRegistry);
+        sinks.forEach(sink -> sinkTimers.put(sink.name(), Timer.builder("shareit.outbox.sink.publish")
+                .tag("sink", sink.name())
+                .register(meterRegistry)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        log.info("Запуск ретранслятора событий букингов, приемники: {}.",
+                sinks.stream().map(BookingEventSink::name).toList());
+        worker = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("booking-outbox-relay").factory());
+        worker.execute(this::drain);
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (worker != null) {
+            worker.shutdown();
+            worker.awaitTermination(interval.toMillis() + maxBackoff.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void drain() {
+        Duration delay = interval;
+        try {
+            relayAll();
+            failuresInRow = 0;
+        } catch (RuntimeException e) {
+            failures.increment();
+            failuresInRow++;
+            delay = interval.multipliedBy(1L << Math.min(failuresInRow, 16));
+            if (delay.compareTo(maxBackoff) > 0) {
+                delay = maxBackoff;
+            }
+            log.warn("Не удалось доставить события букингов, повтор через {}.", delay, e);
+        } finally {
+            if (!worker.isShutdown()) {
+                worker.schedule(this::drain, delay.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Пачки разбираются подряд, пока приходят полными; неполная пачка значит, что outbox пуст.
+    void relayAll() {
+        pending.set(eventRepository.countByDeadLetteredAtIsNull());
+        int taken;
+        do {
+            taken = relayBatch();
+            pending.addAndGet(-taken);
+        } while (taken == batchSize && (worker == null || !worker.isShutdown()));
+    }
+
+    private int relayBatch() {
+        List<Long> ids = new ArrayList<>();
+        Delivery delivery;
+        try {
+            delivery = transactionTemplate.execute(status -> {
+                List<BookingEvent> events = eventRepository.findNextBatchForUpdate(PageRequest.ofSize(batchSize));
+                events.forEach(event -> ids.add(event.getId()));
+                return deliver(events);
+            });
+        } catch (RuntimeException e) {
+            if (ids.isEmpty()) {
+                throw e;
+            }
+            log.debug("Пачка из {} событий букингов не доставлена, события отправляются по одному.", ids.size(), e);
+            relayOneByOne(ids);
+            return ids.size();
+        }
+        completed(delivery);
+        return ids.size();
+    }
+
+    // Останавливается на первом событии, которое не удалось доставить и которое еще не отложено: если приемник
+    // недоступен целиком, за один опрос расходуется одна попытка одного события, а не всей пачки.
+    private void relayOneByOne(List<Long> ids) {
+        for (Long id : ids) {
+            try {
+                completed(transactionTemplate.execute(status -> eventRepository.findPendingByIdForUpdate(id)
+                        .map(event -> deliver(List.of(event)))
+                        .orElse(Delivery.NONE)));
+            } catch (RuntimeException e) {
+                if (!recordFailedAttempt(id, e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Выполняется внутри транзакции пачки: нечитаемые события откладываются, остальные отдаются приемникам
+    // и удаляются. Метрики пишутся в completed, уже после фиксации, чтобы откаченная пачка не считалась дважды.
+    private Delivery deliver(List<BookingEvent> events) {
+        List<BookingEventMessage> messages = new ArrayList<>();
+        List<LocalDateTime> created = new ArrayList<>();
+        int unreadable = 0;
+        for (BookingEvent event : events) {
+            try {
+                messages.add(toMessage(event));
+                created.add(event.getCreated());
+            } catch (IllegalStateException e) {
+                fail(event, e);
+                deadLetter(event);
+                unreadable++;
+            }
+        }
+        if (!messages.isEmpty()) {
+            for (BookingEventSink sink : sinks) {
+                sinkTimers.get(sink.name()).record(() -> publish(sink, messages));
+            }
+            eventRepository.deleteAllByIdInBatch(messages.stream().map(BookingEventMessage::getEventId).toList());
+        }
+        return new Delivery(created, unreadable);
+    }
+
+    // Возвращает true, если событие отложено и разбор можно продолжать со следующего.
+    private boolean recordFailedAttempt(Long id, RuntimeException error) {
+        Boolean deadLetter = transactionTemplate.execute(status -> eventRepository.findPendingByIdForUpdate(id)
+                .map(event -> {
+                    fail(event, error);
+                    if (event.getAttempts() < maxAttempts) {
+                        return false;
+                    }
+                    deadLetter(event);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(deadLetter)) {
+            deadLettered.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void fail(BookingEvent event, Exception error) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(String.valueOf(NestedExceptionUtils.getMostSpecificCause(error)));
+    }
+
+    private void deadLetter(BookingEvent event) {
+        event.setDeadLetteredAt(LocalDateTime.now());
+        log.error("Событие outbox с ID {} отложено после {} попыток: {}.", event.getId(), event.getAttempts(),
+                event.getLastError());
+    }
+
+    private void completed(Delivery delivery) {
+        if (delivery == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        delivery.created().forEach(created -> lag.record(Duration.between(created, now)));
+        if (delivery.unreadable() > 0) {
+            deadLettered.increment(delivery.unreadable());
+        }
+        if (!delivery.created().isEmpty()) {
+            batchSizes.record(delivery.created().size());
+            log.debug("Доставлено {} событий букингов.", delivery.created().size());
+        }
+    }
+
+    private void publish(BookingEventSink sink, List<BookingEventMessage> messages) {
+        try {
+            sink.publish(messages);
+        } catch (Exception e) {
+            throw new IllegalStateException("Приемник " + sink.name() + " не принял события букингов", e);
+        }
+    }
+
+    private BookingEventMessage toMessage(BookingEvent event) {
+        try {
+            BookingEventMessage message = objectMapper.readValue(event.getPayload(), BookingEventMessage.class);
+            message.setEventId(event.getId());
+            return message;
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось прочитать событие outbox с ID " + event.getId(), e);
+        }
+    }
+
+    // Время записи доставленных событий для метрики задержки и число отложенных нечитаемых событий.
+    private record Delivery(List<LocalDateTime> created, int unreadable) {
+        static final Delivery NONE = new Delivery(List.of(), 0);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+    // Тайм-аут блокировки -2 Hibernate переводит в FOR UPDATE SKIP LOCKED: несколько экземпляров приложения
+    // разбирают outbox параллельно, не дожидаясь друг друга и не получая одни и те же строки.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from BookingEvent e where e.deadLetteredAt is null order by e.id")
+    List<BookingEvent> findNextBatchForUpdate(Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from BookingEvent e where e.id = :id and e.deadLetteredAt is null")
+    Optional<BookingEvent> findPendingByIdForUpdate(@Param("id") Long id);
+
+    long countByDeadLetteredAtIsNull();
+}
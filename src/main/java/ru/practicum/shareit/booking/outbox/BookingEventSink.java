@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.outbox;
+
+import java.util.List;
+
+// Приемник событий outbox. Исключение из publish откатывает пачку, и она будет доставлена во все приемники
+// повторно, поэтому приемник должен переносить повторную доставку. Событие, которое приемник отвергает
+// max-attempts раз подряд, откладывается и больше не доставляется ни в один приемник.
+public interface BookingEventSink {
+    String name();
+
+    void publish(List<BookingEventMessage> events) throws Exception;
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Дописывает события в файл NDJSON. Файл сбрасывается на диск до удаления пачки из outbox.
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink.file.enabled", havingValue = "true")
+public class FileBookingEventSink implements BookingEventSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileBookingEventSink(ObjectMapper objectMapper, @Value("${shareit.outbox.sink.file.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void publish(List<BookingEventMessage> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        for (BookingEventMessage event : events) {
+            lines.write(objectMapper.writeValueAsBytes(event));
+            lines.write('\n');
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
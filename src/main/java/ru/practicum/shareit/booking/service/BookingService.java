@@ -1,18 +1,26 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
 import java.util.List;
 
 public interface BookingService {
     BookingDto addBooking(Long userId, CreateBookingDto bookingDto);
 
+    List<BookingDto> addBookings(Long userId, List<CreateBookingDto> bookingDtos);
+
     BookingDto approvingOfBooking(Long userId, Long bookingId, Boolean approved);
 
     BookingDto getBooking(Long userId, Long bookingId);
 
-    List<BookingDto> getBookingsByUserAndState(Long userId, BookingState state);
+    List<BookingDto> getBookingsByUserAndState(Long userId, BookingState state, BookingCursor cursor, Pageable page);
+
+    List<BookingDto> getBookingsForAllItemsOfOwner(Long userId, BookingState state, BookingCursor cursor,
+                                                   Pageable page);
 
-    List<BookingDto> getBookingsForAllItemsOfOwner(Long userId, BookingState state);
+    List<ItemBookingSummaryDto> getBookingSummaryOfOwner(Long ownerId);
 }
@@ -1,13 +1,25 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.*;
+import ru.practicum.shareit.booking.calendar.BookingCalendar;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDto;
+import ru.practicum.shareit.booking.outbox.BookingEventOutbox;
+import ru.practicum.shareit.booking.outbox.BookingEventType;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryUpdater;
 import ru.practicum.shareit.exception.AccessNotAllowedException;
+import ru.practicum.shareit.exception.AlreadyExistsException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
@@ -15,16 +27,29 @@ import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("shareit.service")
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final MeterRegistry meterRegistry;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ObjectProvider<ItemBookingSummaryUpdater> summaryUpdater;
+    private final ObjectProvider<BookingCalendar> bookingCalendar;
+    private final BookingEventOutbox eventOutbox;
 
     @Override
     public BookingDto addBooking(Long userId, CreateBookingDto bookingDto) {
@@ -32,43 +57,99 @@ public class BookingServiceImpl implements BookingService {
         User user = userRepository.findById(userId).orElseThrow(
                 () -> new EntityNotFoundException("Пользователь не найден"));
         log.debug("Поиск предмета для букинга с ID {}.", bookingDto.getItemId());
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(
                 () -> new EntityNotFoundException("Предмет не найден"));
         log.debug("Проверка доступности предмета.");
         if (!item.getAvailable()) {
             throw new ValidationException("Предмет не доступен для букинга.");
         }
         log.debug("Проверка дат начала и окончания букинга.");
-        LocalDateTime now = LocalDateTime.now().minusSeconds(5);
-        if (bookingDto.getStart().equals(bookingDto.getEnd()) ||
-                bookingDto.getStart().isBefore(now) ||
-                bookingDto.getEnd().isBefore(now) ||
-                bookingDto.getEnd().isBefore(bookingDto.getStart())) {
-            throw new ValidationException("Недопустимые даты начала и окончания букинга.");
-        }
+        checkDates(bookingDto);
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
         Booking booking = BookingMapper.toBookingCreate(bookingDto);
         booking.setBooker(user);
         booking.setItem(item);
         log.debug("Создание букинга");
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking createdBooking = bookingRepository.save(booking);
+        eventOutbox.record(createdBooking, BookingEventType.CREATED);
+        summaryUpdater.ifAvailable(updater -> updater.refresh(List.of(item.getId())));
+        bookingCalendar.ifAvailable(calendar -> calendar.putAllAfterCommit(List.of(createdBooking)));
+        return BookingMapper.toBookingDto(createdBooking);
     }
 
     @Override
-    public BookingDto approvingOfBooking(Long userId, Long bookingId, Boolean approved) {
-        log.debug("Проверка прав пользователя с ID {} на установку статуса букинга предмета.", userId);
-        Booking booking = getBookingById(bookingId);
-        if (!booking.getItem().getOwner().getId().equals(userId)) {
-            throw new AccessNotAllowedException("Пользователь не является владельцем и не может менять статус");
+    public List<BookingDto> addBookings(Long userId, List<CreateBookingDto> bookingDtos) {
+        log.debug("Поиск пользователя с ID {}.", userId);
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new EntityNotFoundException("Пользователь не найден"));
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(CreateBookingDto::getItemId)
+                .collect(Collectors.toSet());
+        log.debug("Поиск {} предметов для букинга.", itemIds.size());
+        Map<Long, Item> items = itemRepository.findAllByIdInForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        log.debug("Проверка доступности предметов и дат букинга.");
+        LocalDateTime minStart = null;
+        LocalDateTime maxEnd = null;
+        for (CreateBookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new EntityNotFoundException("Предмет с ID " + bookingDto.getItemId() + " не найден");
+            }
+            if (!item.getAvailable()) {
+                throw new ValidationException("Предмет с ID " + item.getId() + " не доступен для букинга.");
+            }
+            checkDates(bookingDto);
+            minStart = minStart == null || bookingDto.getStart().isBefore(minStart) ? bookingDto.getStart() : minStart;
+            maxEnd = maxEnd == null || bookingDto.getEnd().isAfter(maxEnd) ? bookingDto.getEnd() : maxEnd;
         }
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new AccessNotAllowedException("Для изменения статус букинга предмета должен быть WAITING");
+        log.debug("Проверка пересечения с подтвержденными букингами предметов.");
+        Map<Long, List<Booking>> approvedByItem = bookingRepository.findAllByItemIdInAndStatusAndStartBeforeAndEndAfter(
+                        itemIds, BookingStatus.APPROVED, maxEnd, minStart).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        for (CreateBookingDto bookingDto : bookingDtos) {
+            boolean overlaps = approvedByItem.getOrDefault(bookingDto.getItemId(), List.of()).stream()
+                    .anyMatch(approved -> approved.getStart().isBefore(bookingDto.getEnd()) &&
+                            approved.getEnd().isAfter(bookingDto.getStart()));
+            if (overlaps) {
+                throw new AlreadyExistsException("Предмет с ID " + bookingDto.getItemId() +
+                        " уже забронирован на указанные даты.");
+            }
+            Booking booking = BookingMapper.toBookingCreate(bookingDto);
+            booking.setBooker(user);
+            booking.setItem(items.get(bookingDto.getItemId()));
+            bookings.add(booking);
         }
+        log.debug("Создание {} букингов.", bookings.size());
+        List<Booking> createdBookings = bookingRepository.saveAll(bookings);
+        eventOutbox.recordAll(createdBookings, BookingEventType.CREATED);
+        summaryUpdater.ifAvailable(updater -> updater.refresh(itemIds));
+        bookingCalendar.ifAvailable(calendar -> calendar.putAllAfterCommit(createdBookings));
+        return createdBookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+    }
+
+    @Override
+    public BookingDto approvingOfBooking(Long userId, Long bookingId, Boolean approved) {
+        log.debug("Установка статуса букинга с ID {} пользователем с ID {}.", bookingId, userId);
+        int updated;
         if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
+            boolean locked = itemRepository.findByBookingIdAndOwnerIdForUpdate(bookingId, userId).isPresent();
+            updated = locked ? bookingRepository.approveIfWaitingAndFree(bookingId, userId, BookingStatus.WAITING,
+                    BookingStatus.APPROVED) : 0;
         } else {
-            booking.setStatus(BookingStatus.REJECTED);
+            updated = bookingRepository.updateStatusIfWaiting(bookingId, userId, BookingStatus.WAITING,
+                    BookingStatus.REJECTED);
         }
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking booking = getBookingById(bookingId);
+        if (updated == 0) {
+            throwStatusNotChanged(booking, userId);
+        }
+        eventOutbox.record(booking, approved ? BookingEventType.APPROVED : BookingEventType.REJECTED);
+        summaryUpdater.ifAvailable(updater -> updater.refresh(List.of(booking.getItem().getId())));
+        return BookingMapper.toBookingDto(booking);
     }
 
     @Override
@@ -85,24 +166,38 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsByUserAndState(Long userId, BookingState state) {
+    public List<BookingDto> getBookingsByUserAndState(Long userId, BookingState state, BookingCursor cursor,
+                                                      Pageable page) {
         log.debug("Поиск пользователя с ID {}.", userId);
         User user = userRepository.findById(userId).orElseThrow(
                 () -> new EntityNotFoundException("Пользователь не найден"));
         log.debug("Список букингов в зависимости от запрошенного состояния: {}", state);
-        List<Booking> bookings = switch (state) {
-            case BookingState.ALL -> bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
-            case BookingState.CURRENT -> bookingRepository.findAllByBookerIdAndCurrentTime(userId, LocalDateTime.now());
+        LocalDateTime start = cursor.getStart();
+        Long id = cursor.getId();
+        BookingCalendar calendar = bookingCalendar.getIfAvailable();
+        if (calendar != null && calendar.isServing() && BookingCalendar.supports(state)) {
+            log.debug("Поиск букингов в календаре.");
+            List<Booking> bookings = timedQuery("booker", state, "calendar", () -> findAllInOrder(
+                    calendar.findBookerBookings(userId, state, LocalDateTime.now(), start, id, page)));
+            return bookings.stream()
+                    .map(BookingMapper::toBookingDto)
+                    .toList();
+        }
+        List<Booking> bookings = timedQuery("booker", state, "database", () -> switch (state) {
+            case BookingState.ALL -> bookingRepository.findAllByBookerId(userId, start, id, page);
+            case BookingState.CURRENT ->
+                    bookingRepository.findAllByBookerIdAndCurrentTime(userId, LocalDateTime.now(), start, id, page);
             case BookingState.PAST ->
-                    bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
+                    bookingRepository.findAllByBookerIdAndEndBefore(userId, LocalDateTime.now(), start, id, page);
             case BookingState.FUTURE ->
-                    bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
+                    bookingRepository.findAllByBookerIdAndStartAfter(userId, LocalDateTime.now(), start, id, page);
             case BookingState.WAITING ->
-                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
+                    bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, start, id, page);
             case BookingState.REJECTED ->
-                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-        };
-        log.debug("Найдено {} букингов: {}.", bookings.size(), bookings);
+                    bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, start, id, page);
+        });
+        log.debug("Найдено {} букингов.", bookings.size());
+        log.trace("Найденные букинги: {}.", bookings);
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .toList();
@@ -110,33 +205,112 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDto> getBookingsForAllItemsOfOwner(Long ownerId, BookingState state) {
+    public List<BookingDto> getBookingsForAllItemsOfOwner(Long ownerId, BookingState state, BookingCursor cursor,
+                                                          Pageable page) {
         log.debug("Поиск пользователя с ID {}.", ownerId);
         User user = userRepository.findById(ownerId).orElseThrow(
                 () -> new EntityNotFoundException("Пользователь не найден"));
         log.debug("Получение список букингов предмета в зависимости от запрошенного состояния: {}", state);
-        List<Booking> bookings = switch (state) {
-            case BookingState.ALL -> bookingRepository.findAllByItemOwnerIdOrderByStartDesc(ownerId);
-            case BookingState.CURRENT -> bookingRepository.findAllByOwnerIdAndCurrentTime(ownerId, LocalDateTime.now());
+        LocalDateTime start = cursor.getStart();
+        Long id = cursor.getId();
+        BookingCalendar calendar = bookingCalendar.getIfAvailable();
+        if (calendar != null && calendar.isServing() && BookingCalendar.supports(state)) {
+            log.debug("Поиск букингов в календаре.");
+            List<Booking> bookings = timedQuery("owner", state, "calendar", () -> findAllInOrder(
+                    calendar.findOwnerBookings(ownerId, state, LocalDateTime.now(), start, id, page)));
+            return bookings.stream()
+                    .map(BookingMapper::toBookingDto)
+                    .toList();
+        }
+        List<Booking> bookings = timedQuery("owner", state, "database", () -> switch (state) {
+            case BookingState.ALL -> bookingRepository.findAllByItemOwnerId(ownerId, start, id, page);
+            case BookingState.CURRENT ->
+                    bookingRepository.findAllByOwnerIdAndCurrentTime(ownerId, LocalDateTime.now(), start, id, page);
             case BookingState.PAST ->
-                    bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(ownerId, LocalDateTime.now());
+                    bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, LocalDateTime.now(), start, id, page);
             case BookingState.FUTURE ->
-                    bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(ownerId, LocalDateTime.now());
+                    bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, LocalDateTime.now(), start, id, page);
             case BookingState.WAITING ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING);
+                    bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.WAITING, start, id, page);
             case BookingState.REJECTED ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED);
-        };
-        log.debug("Найдено {} букингов: {}.", bookings.size(), bookings);
+                    bookingRepository.findAllByItemOwnerIdAndStatus(ownerId, BookingStatus.REJECTED, start, id, page);
+        });
+        log.debug("Найдено {} букингов.", bookings.size());
+        log.trace("Найденные букинги: {}.", bookings);
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemBookingSummaryDto> getBookingSummaryOfOwner(Long ownerId) {
+        log.debug("Поиск пользователя с ID {}.", ownerId);
+        if (userRepository.findById(ownerId).isEmpty()) {
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        log.debug("Получение сводки букингов предметов владельца с ID {}.", ownerId);
+        return summaryRepository.findAllByOwnerIdOrderByItemId(ownerId).stream()
+                .map(BookingMapper::toItemBookingSummaryDto)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     private Booking getBookingById(Long bookingId) {
-        return bookingRepository.findById(bookingId).orElseThrow(
+        return bookingRepository.findWithItemAndBookerById(bookingId).orElseThrow(
                 () -> new EntityNotFoundException("Букинга с ID " + bookingId + " не найдено.")
         );
     }
+
+    private List<Booking> timedQuery(String view, BookingState state, String source,
+                                     Supplier<List<Booking>> query) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Booking> bookings = query.get();
+        sample.stop(meterRegistry.timer("shareit.booking.query", "view", view, "state", state.name(),
+                "source", source));
+        meterRegistry.summary("shareit.booking.query.rows", "view", view, "state", state.name(), "source", source)
+                .record(bookings.size());
+        return bookings;
+    }
+
+    private List<Booking> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Booking> bookingsById = bookingRepository.findAllWithItemAndBookerByIdIn(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        return ids.stream()
+                .map(bookingsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void checkDates(CreateBookingDto bookingDto) {
+        LocalDateTime now = LocalDateTime.now().minusSeconds(5);
+        if (bookingDto.getStart().equals(bookingDto.getEnd()) ||
+                bookingDto.getStart().isBefore(now) ||
+                bookingDto.getEnd().isBefore(now) ||
+                bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+            throw new ValidationException("Недопустимые даты начала и окончания букинга.");
+        }
+    }
+
+    // Условный UPDATE не изменил строку, причина определяется по текущему состоянию букинга.
+    private void throwStatusNotChanged(Booking booking, Long userId) {
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
+            throw new AccessNotAllowedException("Пользователь не является владельцем и не может менять статус");
+        }
+        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+            throw new AccessNotAllowedException("Для изменения статус букинга предмета должен быть WAITING");
+        }
+        throw new AlreadyExistsException("Предмет уже забронирован на указанные даты.");
+    }
+
+    // Вызывается под блокировкой строки предмета, поэтому проверка и запись букинга сериализуются по предмету.
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        log.debug("Проверка пересечения с подтвержденными букингами предмета с ID {}.", itemId);
+        if (bookingRepository.existsOverlapping(itemId, BookingStatus.APPROVED, start, end)) {
+            throw new AlreadyExistsException("Предмет уже забронирован на указанные даты.");
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.summary;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+// Строки пишутся только SQL-запросами ItemBookingSummaryRepository, сущность используется для чтения.
+@Entity
+@Immutable
+@Table(name = "item_booking_summary")
+@Getter
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "current_count", nullable = false)
+    private int currentCount;
+
+    @Column(name = "past_count", nullable = false)
+    private int pastCount;
+
+    @Column(name = "future_count", nullable = false)
+    private int futureCount;
+
+    @Column(name = "waiting_count", nullable = false)
+    private int waitingCount;
+
+    @Column(name = "rejected_count", nullable = false)
+    private int rejectedCount;
+
+    @Column(name = "last_booking")
+    private LocalDateTime lastBooking;
+
+    @Column(name = "next_booking")
+    private LocalDateTime nextBooking;
+
+    @Column(name = "next_transition_at")
+    private LocalDateTime nextTransitionAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
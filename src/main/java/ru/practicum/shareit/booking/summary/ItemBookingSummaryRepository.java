@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    // Пересчитывает строки сводки по букингам выбранных предметов. Читаются только букинги этих предметов
+    // (индекс bookings(item_id, start_date, id)), поэтому вызов дешев при любом объеме истории.
+    String UPSERT_SUMMARY = "INSERT INTO item_booking_summary (item_id, owner_id, total_count, current_count, " +
+            "past_count, future_count, waiting_count, rejected_count, last_booking, next_booking, " +
+            "next_transition_at, refreshed_at) " +
+            "SELECT i.id, i.owner_id, " +
+            "COUNT(b.id), " +
+            "COUNT(b.id) FILTER (WHERE b.start_date <= :now AND b.end_date >= :now), " +
+            "COUNT(b.id) FILTER (WHERE b.end_date < :now), " +
+            "COUNT(b.id) FILTER (WHERE b.start_date > :now), " +
+            "COUNT(b.id) FILTER (WHERE b.status = 'WAITING'), " +
+            "COUNT(b.id) FILTER (WHERE b.status = 'REJECTED'), " +
+            "MAX(b.end_date) FILTER (WHERE b.end_date < :now), " +
+            "MIN(b.start_date) FILTER (WHERE b.start_date > :now), " +
+            "LEAST(MIN(b.start_date) FILTER (WHERE b.start_date > :now), " +
+            "MIN(b.end_date) FILTER (WHERE b.end_date >= :now)), " +
+            ":now " +
+            "FROM items i LEFT JOIN bookings b ON b.item_id = i.id ";
+    String ON_CONFLICT_UPDATE = " GROUP BY i.id, i.owner_id " +
+            "ON CONFLICT (item_id) DO UPDATE SET owner_id = EXCLUDED.owner_id, " +
+            "total_count = EXCLUDED.total_count, current_count = EXCLUDED.current_count, " +
+            "past_count = EXCLUDED.past_count, future_count = EXCLUDED.future_count, " +
+            "waiting_count = EXCLUDED.waiting_count, rejected_count = EXCLUDED.rejected_count, " +
+            "last_booking = EXCLUDED.last_booking, next_booking = EXCLUDED.next_booking, " +
+            "next_transition_at = EXCLUDED.next_transition_at, refreshed_at = EXCLUDED.refreshed_at";
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = UPSERT_SUMMARY + "WHERE i.id IN (:itemIds)" + ON_CONFLICT_UPDATE, nativeQuery = true)
+    int refreshForItems(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    // Пересчет сводки идет под блокировкой строк предметов, той же, что берет добавление букинга. Иначе UPSERT,
+    // посчитанный по снимку начала запроса, дождался бы блокировки строки сводки и записал бы поверх нее
+    // значения без только что закоммиченного букинга.
+    @Query(value = "SELECT i.id FROM items i WHERE i.id IN (:itemIds) ORDER BY i.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockItems(@Param("itemIds") Collection<Long> itemIds);
+
+    // Предметы, у которых с прошлого пересчета хотя бы один букинг начался или закончился. Предметы, занятые
+    // другими транзакциями, пропускаются: они пересчитают свою сводку сами или попадут в следующий проход.
+    @Query(value = "SELECT i.id FROM items i WHERE i.id IN (SELECT s.item_id FROM item_booking_summary s " +
+            "WHERE s.next_transition_at < :now) ORDER BY i.id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueItems(@Param("now") LocalDateTime now);
+
+    List<ItemBookingSummary> findAllByOwnerIdOrderByItemId(Long ownerId);
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Добавление и подтверждение букинга пересчитывают сводку своих предметов в той же транзакции.
+// Переходы по времени (FUTURE -> CURRENT -> PAST) происходят без изменения букингов и обрабатываются по расписанию.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking-summary.enabled", havingValue = "true")
+public class ItemBookingSummaryUpdater {
+    private final ItemBookingSummaryRepository summaryRepository;
+
+    @Transactional
+    public void refresh(Collection<Long> itemIds) {
+        log.debug("Пересчет сводки букингов предметов {}.", itemIds);
+        summaryRepository.lockItems(itemIds);
+        summaryRepository.refreshForItems(itemIds, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.refresh-interval}")
+    @Transactional
+    public void refreshDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = summaryRepository.lockDueItems(now);
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        int refreshed = summaryRepository.refreshForItems(itemIds, now);
+        if (refreshed > 0) {
+            log.debug("Пересчитана сводка букингов для {} предметов.", refreshed);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.sweeper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.outbox.BookingEventOutbox;
+import ru.practicum.shareit.booking.outbox.BookingEventType;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaryUpdater;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+// Переходы букингов по времени: WAITING, начавшиеся больше expire-after назад, становятся EXPIRED, фаза продвигается
+// FUTURE -> CURRENT -> PAST. Запас expire-after нужен, потому что букинг принимается с началом чуть в прошлом,
+// а владелец может подтвердить букинг и через несколько секунд после его начала. Каждая пачка обновляется в своей транзакции, чтобы не держать блокировки
+// на все время обхода.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking-sweeper.enabled", havingValue = "true")
+public class BookingSweeper {
+    private final BookingRepository bookingRepository;
+    private final BookingEventOutbox eventOutbox;
+    private final ObjectProvider<ItemBookingSummaryUpdater> summaryUpdater;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration expireAfter;
+    private final Counter expired;
+    private final Counter advancedToCurrent;
+    private final Counter advancedToPast;
+
+    public BookingSweeper(BookingRepository bookingRepository,
+                          BookingEventOutbox eventOutbox,
+                          ObjectProvider<ItemBookingSummaryUpdater> summaryUpdater,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${shareit.booking-sweeper.batch-size}") int batchSize,
+                          @Value("${shareit.booking-sweeper.expire-after}") Duration expireAfter,
+                          MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.eventOutbox = eventOutbox;
+        this.summaryUpdater = summaryUpdater;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.expireAfter = expireAfter;
+        expired = Counter.builder("shareit.booking.sweeper.transitions").tag("to", "EXPIRED")
+                .register(meterRegistry);
+        advancedToCurrent = Counter.builder("shareit.booking.sweeper.transitions").tag("to", "CURRENT")
+                .register(meterRegistry);
+        advancedToPast = Counter.builder("shareit.booking.sweeper.transitions").tag("to", "PAST")
+                .register(meterRegistry);
+    }
+
+    // Фаза CURRENT проставляется раньше PAST, поэтому букинг, целиком прошедший между обходами,
+    // становится PAST в том же обходе.
+    @Scheduled(fixedDelayString = "${shareit.booking-sweeper.interval}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int expiredCount = drain(() -> expireBatch(now.minus(expireAfter)));
+        int currentCount = drain(() -> bookingRepository.advanceToCurrent(now, batchSize));
+        int pastCount = drain(() -> bookingRepository.advanceToPast(now, batchSize));
+        expired.increment(expiredCount);
+        advancedToCurrent.increment(currentCount);
+        advancedToPast.increment(pastCount);
+        if (expiredCount + currentCount + pastCount > 0) {
+            log.debug("Обход букингов: истекло {}, начались {}, завершились {}.", expiredCount, currentCount,
+                    pastCount);
+        }
+    }
+
+    private int expireBatch(LocalDateTime startedBefore) {
+        List<Long> ids = bookingRepository.findStaleWaitingIdsForUpdate(startedBefore, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = bookingRepository.expireWaiting(ids, BookingStatus.WAITING, BookingStatus.EXPIRED);
+        List<Booking> bookings = bookingRepository.findAllWithItemAndBookerByIdIn(ids);
+        eventOutbox.recordAll(bookings, BookingEventType.EXPIRED);
+        summaryUpdater.ifAvailable(updater -> updater.refresh(bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .distinct()
+                .toList()));
+        return updated;
+    }
+
+    private int drain(IntSupplier batch) {
+        int total = 0;
+        int updated;
+        do {
+            updated = transactionTemplate.execute(status -> batch.getAsInt());
+            total += updated;
+        } while (updated == batchSize);
+        return total;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+
+// Оборачивается только основной DataSource приложения: пулы реплик и другие источники данных не трогаются.
+@Configuration
+@ConditionalOnProperty(name = "shareit.slow-query-log.enabled", havingValue = "true")
+public class SlowQueryLogConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor slowQueryLogDataSourceWrapper(Environment environment) {
+        SlowQueryLogger logger = new SlowQueryLogger(
+                environment.getRequiredProperty("shareit.slow-query-log.threshold-ms", Long.class),
+                environment.getRequiredProperty("shareit.slow-query-log.sample-rate", Double.class));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(logger)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
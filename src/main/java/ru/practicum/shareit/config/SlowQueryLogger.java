@@ -0,0 +1,50 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Пишет в лог запросы дольше порога вместе с параметрами. Пишется только доля sampleRate таких запросов,
+// чтобы при общей деградации базы лог не стал новой нагрузкой.
+@Slf4j
+@RequiredArgsConstructor
+public class SlowQueryLogger implements QueryExecutionListener {
+    private final long thresholdMs;
+    private final double sampleRate;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMs || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            log.warn("Медленный запрос ({} мс, успешно: {}): {} параметры: {}", execInfo.getElapsedTime(),
+                    execInfo.isSuccess(), queryInfo.getQuery(), parameters(queryInfo));
+        }
+    }
+
+    private static String parameters(QueryInfo queryInfo) {
+        StringBuilder builder = new StringBuilder();
+        for (List<ParameterSetOperation> batch : queryInfo.getParametersList()) {
+            builder.append('[');
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                Object[] args = batch.get(i).getArgs();
+                builder.append(args.length > 1 ? args[1] : null);
+            }
+            builder.append(']');
+        }
+        return builder.toString();
+    }
+}
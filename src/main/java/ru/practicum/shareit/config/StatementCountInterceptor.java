@@ -0,0 +1,71 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Считает SQL-запросы, выполненные Hibernate за время обработки HTTP-запроса, и пишет их число
+ * в гистограмму {@code shareit.http.statements} с тегами метода и шаблона URI.
+ * <p>
+ * Для асинхронных ответов ({@code StreamingResponseBody}) счетчик живет в атрибуте запроса: поток, начавший
+ * обработку, отвязывается от него в {@link #afterConcurrentHandlingStarted}, а повторная ASYNC-диспетчеризация
+ * продолжает тот же счетчик и записывает итог. Запросы, выполненные в потоке, который пишет тело ответа,
+ * не считаются: он не проходит через перехватчик.
+ */
+@RequiredArgsConstructor
+public class StatementCountInterceptor implements StatementInspector, AsyncHandlerInterceptor {
+    private static final String COUNTER_ATTRIBUTE = StatementCountInterceptor.class.getName() + ".counter";
+
+    private final ThreadLocal<int[]> statements = new ThreadLocal<>();
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public String inspect(String sql) {
+        int[] counter = statements.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        int[] counter = (int[]) request.getAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            counter = new int[1];
+            request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        }
+        statements.set(counter);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        statements.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        statements.remove();
+        int[] counter = (int[]) request.getAttribute(COUNTER_ATTRIBUTE);
+        request.removeAttribute(COUNTER_ATTRIBUTE);
+        if (counter == null) {
+            return;
+        }
+        Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("shareit.http.statements")
+                .description("Количество SQL-запросов на один HTTP-запрос")
+                .tag("method", request.getMethod())
+                .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                .register(meterRegistry)
+                .record(counter[0]);
+    }
+}
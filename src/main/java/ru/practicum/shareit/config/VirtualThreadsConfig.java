@@ -0,0 +1,53 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+// Tomcat, @Async и планировщик переключает сам Spring Boot по spring.threads.virtual.enabled.
+// Здесь проверяется, что JDBC-слой не будет закреплять виртуальные потоки за потоками-носителями.
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    private static final int POSTGRES_DRIVER_MAJOR_WITHOUT_PINNING = 42;
+    private static final int POSTGRES_DRIVER_MINOR_WITHOUT_PINNING = 6;
+
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkJdbcPinning() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            log.info("Виртуальные потоки включены, JDBC-драйвер: {} {}.", metaData.getDriverName(),
+                    metaData.getDriverVersion());
+            if (metaData.getDriverName().contains("PostgreSQL") &&
+                    (metaData.getDriverMajorVersion() < POSTGRES_DRIVER_MAJOR_WITHOUT_PINNING ||
+                            metaData.getDriverMajorVersion() == POSTGRES_DRIVER_MAJOR_WITHOUT_PINNING &&
+                                    metaData.getDriverMinorVersion() < POSTGRES_DRIVER_MINOR_WITHOUT_PINNING)) {
+                log.warn("Драйвер PostgreSQL до 42.6 использует synchronized в сетевом вводе-выводе и закрепляет " +
+                        "виртуальные потоки. Обновите драйвер или выключите spring.threads.virtual.enabled.");
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить JDBC-драйвер:", e);
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                log.info("Пул соединений {}: максимум {} соединений, ожидание соединения до {} мс.",
+                        hikari.getPoolName(), hikari.getMaximumPoolSize(), hikari.getConnectionTimeout());
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось получить настройки пула соединений:", e);
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package ru.practicum.shareit.exception;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +16,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @Slf4j
 @RestControllerAdvice
 public class ExceptionController {
+    static final String APPROVED_BOOKING_OVERLAP_CONSTRAINT = "ex_bookings_approved_overlap";
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handlerValidationException(ValidationException e) {
@@ -32,6 +39,26 @@ public class ExceptionController {
         return new ErrorResponse(HttpStatus.CONFLICT.value(), e.getMessage());
     }
 
+    // Конфликтом считается только нарушение ограничения на пересечение подтвержденных букингов, остальные
+    // нарушения целостности обрабатываются как любое необработанное исключение.
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handlerDataIntegrityViolationException(DataIntegrityViolationException e) {
+        if (!violates(e, APPROVED_BOOKING_OVERLAP_CONSTRAINT)) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(handleGenericException(e));
+        }
+        log.error("Нарушено ограничение на пересечение подтвержденных букингов:", e);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), "Предмет уже забронирован на указанные даты."));
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handlerOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        log.error("Конфликт параллельного изменения:", e);
+        return new ErrorResponse(HttpStatus.CONFLICT.value(),
+                "Данные были изменены параллельным запросом, повторите запрос.");
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValidException(MethodArgumentNotValidException e) {
@@ -44,6 +71,17 @@ public class ExceptionController {
         return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), message);
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleConstraintViolationException(ConstraintViolationException e) {
+        String message = e.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .findFirst()
+                .orElse(e.getMessage());
+        log.error("Нарушены ограничения параметров запроса:", e);
+        return new ErrorResponse(HttpStatus.BAD_REQUEST.value(), message);
+    }
+
     // Хэндлер для любых необработанных исключений
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -58,4 +96,19 @@ public class ExceptionController {
         log.error("Доступ запрещен:", e);
         return new ErrorResponse(HttpStatus.FORBIDDEN.value(), "Доступ запрещен.");
     }
+
+    // Hibernate извлекает имя ограничения не для всех кодов SQLState (например, не для 23P01 исключающих
+    // ограничений Postgres), поэтому имя ищется и в сообщениях всей цепочки причин.
+    private static boolean violates(Throwable e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof org.hibernate.exception.ConstraintViolationException violation &&
+                    constraint.equalsIgnoreCase(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.CreateItemDto;
@@ -13,6 +20,8 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import java.time.Duration;
 import java.util.List;
 
 @Slf4j
@@ -23,6 +32,8 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    @Value("${shareit.http.search-max-age}")
+    private final Duration searchMaxAge;
 
     @PostMapping
     public ItemDto addNewItem(@RequestHeader("X-Sharer-User-Id") Long userId, @Valid @RequestBody CreateItemDto item) {
@@ -30,6 +41,13 @@ public class ItemController {
         return itemService.addNewItem(userId, item);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> addNewItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @RequestBody @NotEmpty List<@Valid CreateItemDto> items) {
+        log.debug("Создание {} предметов пользователем с ID {}.", items.size(), userId);
+        return itemService.addNewItems(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable @Positive Long itemId,
                               @Valid @RequestBody UpdateItemDto item) {
@@ -38,22 +56,34 @@ public class ItemController {
         return itemService.updateItem(userId, item);
     }
 
+    // ETag отдается только не владельцам: у владельца в ответе даты букингов, которые меняются со временем.
+    // ETag строится по версиям из базы до чтения предмета, поэтому совпавший If-None-Match отвечает 304 без
+    // чтения, а для несуществующих предметов и пользователей по-прежнему отвечает 404.
     @GetMapping("/{itemId}")
-    public ItemWithBookingDto getItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable @Positive Long itemId) {
+    public ResponseEntity<ItemWithBookingDto> getItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PathVariable @Positive Long itemId, WebRequest request) {
         log.debug("Получение предмета с ID {} пользователем с ID {}.", itemId, userId);
-        return itemService.getItem(userId, itemId);
+        return itemService.getItem(userId, itemId, request::checkNotModified)
+                .map(ResponseEntity::ok)
+                .orElse(null);
     }
 
     @GetMapping
     public List<ItemWithBookingDto> getItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.debug("Получение списка всех предметов пользователя ID {}.", userId);
-        return itemService.getItems(userId);
+        return itemService.getItemsOverview(userId);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> findItems(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestParam String text) {
+    public ResponseEntity<List<ItemDto>> findItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam String text,
+                                                   @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                   @RequestParam(required = false) @Positive Integer size) {
         log.debug("Получение пользователем с ID {} списка предметов, содержащих текст: {}.", userId, text);
-        return itemService.findItems(userId, text);
+        Pageable page = size == null ? Pageable.unpaged() : OffsetPageRequest.of(from, size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(searchMaxAge).cachePrivate())
+                .body(itemService.findItems(userId, text, page));
     }
 
     @PostMapping("/{itemId}/comment")
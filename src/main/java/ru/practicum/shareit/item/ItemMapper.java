@@ -7,6 +7,7 @@ import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 
 @UtilityClass
 public class ItemMapper {
@@ -33,12 +34,14 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .requestId(item.getRequest() == null ? null : item.getRequest().getId())
                 .build();
     }
 
     public ItemWithBookingDto toItemWithBookingDto(Item item, LocalDateTime lastBooking, LocalDateTime nextBooking) {
         return ItemWithBookingDto.builder()
                 .id(item.getId())
+                .ownerId(item.getOwner().getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
@@ -46,4 +49,16 @@ public class ItemMapper {
                 .nextBooking(nextBooking)
                 .build();
     }
+
+    public ItemWithBookingDto toItemWithBookingDto(ItemWithBookingRow row) {
+        return ItemWithBookingDto.builder()
+                .id(row.getItemId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .lastBooking(row.getLastBooking())
+                .nextBooking(row.getNextBooking())
+                .comments(new ArrayList<>())
+                .build();
+    }
 }
@@ -1,14 +1,60 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByOwnerId(Long ownerId);
 
-    @Query("select i from Item i where (upper(i.name) like concat('%', upper(?1), '%') " +
-            "or upper(i.description) like concat('%', upper(?1), '%')) and i.available = true")
-    List<Item> search(String text);
+    List<Item> findAllByIdGreaterThanOrderById(Long id, Pageable page);
+
+    @Query("select new ru.practicum.shareit.item.ItemWithBookingRow(i.id, i.name, i.description, i.available, " +
+            "(select max(b.end) from Booking b where b.item = i and b.end < :now), " +
+            "(select min(b.start) from Booking b where b.item = i and b.start > :now), " +
+            "c.id, c.text, a.name, c.created) " +
+            "from Item i left join Comment c on c.item = i left join c.author a " +
+            "where i.owner.id = :ownerId order by i.id, c.created desc")
+    List<ItemWithBookingRow> findRowsWithBookingsByOwnerId(@Param("ownerId") Long ownerId,
+                                                           @Param("now") LocalDateTime now);
+
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    // Все, от чего зависит ответ не владельцу: версия предмета, комментарии и версии их авторов. Пустой результат,
+    // если нет предмета или пользователя.
+    @Query("select i.owner.id as ownerId, i.version as version, count(c.id) as comments, " +
+            "coalesce(max(c.id), 0) as lastCommentId, coalesce(sum(a.version), 0) as authorsVersion " +
+            "from Item i left join Comment c on c.item = i left join c.author a " +
+            "where i.id = :itemId and exists (select u.id from User u where u.id = :userId) " +
+            "group by i.owner.id, i.version")
+    Optional<ItemVersion> findVersion(@Param("itemId") Long itemId, @Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    // Владелец проверяется в самом запросе: чужой пользователь не блокирует строку предмета.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.owner.id = :ownerId " +
+            "and i.id = (select b.item.id from Booking b where b.id = :bookingId)")
+    Optional<Item> findByBookingIdAndOwnerIdForUpdate(@Param("bookingId") Long bookingId,
+                                                      @Param("ownerId") Long ownerId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("select i from Item i where (upper(i.name) like concat('%', upper(:text), '%') " +
+            "or upper(i.description) like concat('%', upper(:text), '%')) and i.available = true " +
+            "order by case when upper(i.name) like concat(upper(:text), '%') then 0 " +
+            "when upper(i.name) like concat('%', upper(:text), '%') then 1 else 2 end, i.id")
+    List<Item> search(@Param("text") String text, Pageable page);
 }
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item;
+
+public interface ItemVersion {
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getComments();
+
+    Long getLastCommentId();
+
+    Long getAuthorsVersion();
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка выборки предметов владельца: поля предмета, даты букингов и один комментарий
+ * (поля комментария пустые, если комментариев нет). Создается конструктором прямо в JPQL,
+ * поэтому не попадает в контекст персистентности.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemWithBookingRow {
+    private long itemId;
+    private String name;
+    private String description;
+    private Boolean available;
+    private LocalDateTime lastBooking;
+    private LocalDateTime nextBooking;
+    private Long commentId;
+    private String commentText;
+    private String authorName;
+    private LocalDateTime commentCreated;
+}
@@ -4,6 +4,7 @@ import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemWithBookingRow;
 import ru.practicum.shareit.user.User;
 import java.time.LocalDateTime;
 
@@ -18,6 +19,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public CommentDto toCommentDto(ItemWithBookingRow row) {
+        return CommentDto.builder()
+                .id(row.getCommentId())
+                .text(row.getCommentText())
+                .authorName(row.getAuthorName())
+                .created(row.getCommentCreated())
+                .build();
+    }
+
     public Comment toComment(CreateCommentDto comment, Item commentItem, User user) {
         return Comment.builder()
                 .text(comment.getText())
@@ -1,8 +1,14 @@
 package ru.practicum.shareit.item.comment;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemIdOrderByCreatedDesc(Long itemId);
-}
\ No newline at end of file
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id = :itemId ORDER BY c.created DESC")
+    List<Comment> findAllByItemIdOrderByCreatedDesc(@Param("itemId") Long itemId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.owner.id = :ownerId ORDER BY c.created DESC")
+    List<Comment> findAllByItemOwnerId(@Param("ownerId") Long ownerId);
+}
@@ -20,4 +20,6 @@ public class CreateItemDto {
 
     @NotNull(message = "Значение доступности предмета обязательно.")
     private Boolean available;
+
+    private Long requestId;
 }
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +15,8 @@ import java.util.List;
 @AllArgsConstructor
 public class ItemWithBookingDto {
     private Long id;
+    @JsonIgnore
+    private Long ownerId;
     private String name;
     private String description;
     private Boolean available;
@@ -0,0 +1,384 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Триграммный индекс по названию и описанию предметов. Дает те же результаты, что и ItemRepository.search:
+// регистронезависимое вхождение подстроки среди доступных предметов с тем же ранжированием.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.in-memory.enabled", havingValue = "true")
+public class ItemSearchIndex {
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int TRIGRAM = 3;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+    private static final long TRIGRAM_ENTRY_BYTES = 96;
+    private static final long ID_ENTRY_BYTES = 64;
+
+    private final ItemRepository itemRepository;
+    private final long maxMemoryBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> docsById = new HashMap<>();
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+    private final BitSet available = new BitSet();
+    // Предметы, записанные после коммита во время построения: их строки в загружаемых страницах могут быть
+    // прочитаны до коммита, и rebuild не должен затирать ими более новые значения.
+    private Set<Long> writtenDuringBuild;
+    private long[] ids = new long[16];
+    // 0 - предмет создан не в ответ на запрос; идентификаторы запросов начинаются с 1.
+    private long[] requestIds = new long[16];
+    private String[] names = new String[16];
+    private String[] descriptions = new String[16];
+    private String[] upperNames = new String[16];
+    private String[] upperDescriptions = new String[16];
+    private int size;
+    private long stringBytes;
+    private long postingEntries;
+    private volatile long memoryBytes;
+    private volatile boolean ready;
+    private volatile boolean overBudget;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.in-memory.max-memory-bytes}") long maxMemoryBytes,
+                           MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.maxMemoryBytes = maxMemoryBytes;
+        Gauge.builder("shareit.search.index.memory", this, ItemSearchIndex::getMemoryBytes)
+                .description("Оценка памяти, занятой индексом поиска предметов")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.memory.budget", this, index -> index.maxMemoryBytes)
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.items", this, ItemSearchIndex::getSize)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Построение индекса поиска предметов.");
+        lock.writeLock().lock();
+        try {
+            writtenDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long lastId = 0;
+        List<Item> page;
+        do {
+            page = itemRepository.findAllByIdGreaterThanOrderById(lastId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            page.forEach(item -> put(ItemMapper.toItemDto(item), true));
+            if (!page.isEmpty()) {
+                lastId = page.getLast().getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE && !overBudget);
+        lock.writeLock().lock();
+        try {
+            writtenDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Индекс поиска построен: {} предметов, ~{} байт.", getSize(), getMemoryBytes());
+    }
+
+    public boolean isServing() {
+        return ready && !overBudget;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putAfterCommit(ItemDto item) {
+        putAllAfterCommit(List.of(item));
+    }
+
+    public void putAllAfterCommit(List<ItemDto> items) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            items.forEach(this::put);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                items.forEach(ItemSearchIndex.this::put);
+            }
+        });
+    }
+
+    public void put(ItemDto item) {
+        put(item, false);
+    }
+
+    private void put(ItemDto item, boolean loaded) {
+        if (overBudget) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringBuild != null) {
+                if (loaded && writtenDuringBuild.contains(item.getId())) {
+                    return;
+                }
+                if (!loaded) {
+                    writtenDuringBuild.add(item.getId());
+                }
+            }
+            Integer doc = docsById.get(item.getId());
+            if (doc == null) {
+                doc = size++;
+                ensureCapacity(size);
+                ids[doc] = item.getId();
+                docsById.put(item.getId(), doc);
+            } else {
+                removeTrigrams(doc);
+                stringBytes -= stringBytes(doc);
+            }
+            names[doc] = item.getName();
+            descriptions[doc] = item.getDescription();
+            requestIds[doc] = item.getRequestId() == null ? 0 : item.getRequestId();
+            upperNames[doc] = item.getName().toUpperCase(Locale.ROOT);
+            upperDescriptions[doc] = item.getDescription().toUpperCase(Locale.ROOT);
+            available.set(doc, Boolean.TRUE.equals(item.getAvailable()));
+            stringBytes += stringBytes(doc);
+            addTrigrams(doc);
+            updateMemoryBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, Pageable page) {
+        String query = text.toUpperCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            int[] candidates = candidates(query);
+            int count = candidates == null ? size : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int doc = candidates == null ? i : candidates[i];
+                if (!available.get(doc)) {
+                    continue;
+                }
+                int rank = rank(doc, query);
+                if (rank >= 0) {
+                    matches.add(new Match(rank, ids[doc], doc));
+                }
+            }
+            matches.sort(Comparator.comparingInt(Match::rank).thenComparingLong(Match::id));
+            return matches.stream()
+                    .skip(page.isPaged() ? page.getOffset() : 0)
+                    .limit(page.isPaged() ? page.getPageSize() : Long.MAX_VALUE)
+                    .map(match -> ItemDto.builder()
+                            .id(match.id())
+                            .name(names[match.doc()])
+                            .description(descriptions[match.doc()])
+                            .available(true)
+                            .requestId(requestIds[match.doc()] == 0 ? null : requestIds[match.doc()])
+                            .build())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int rank(int doc, String query) {
+        if (upperNames[doc].startsWith(query)) {
+            return 0;
+        }
+        if (upperNames[doc].contains(query)) {
+            return 1;
+        }
+        return upperDescriptions[doc].contains(query) ? 2 : -1;
+    }
+
+    // null означает, что запрос короче триграммы и проверять нужно все предметы.
+    private int[] candidates(String query) {
+        if (query.length() < TRIGRAM) {
+            return null;
+        }
+        List<Postings> postings = new ArrayList<>();
+        for (int i = 0; i + TRIGRAM <= query.length(); i++) {
+            Postings trigramPostings = postingsByTrigram.get(trigram(query, i));
+            if (trigramPostings == null) {
+                return new int[0];
+            }
+            postings.add(trigramPostings);
+        }
+        postings.sort(Comparator.comparingInt(Postings::size));
+        int[] result = Arrays.copyOf(postings.getFirst().docs, postings.getFirst().size);
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            result = postings.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private void addTrigrams(int doc) {
+        forEachTrigram(upperNames[doc], trigram -> postingsByTrigram.computeIfAbsent(trigram, key -> new Postings())
+                .add(doc));
+        forEachTrigram(upperDescriptions[doc], trigram -> postingsByTrigram.computeIfAbsent(trigram,
+                key -> new Postings()).add(doc));
+    }
+
+    private void removeTrigrams(int doc) {
+        forEachTrigram(upperNames[doc], trigram -> removeFromPostings(trigram, doc));
+        forEachTrigram(upperDescriptions[doc], trigram -> removeFromPostings(trigram, doc));
+    }
+
+    private void removeFromPostings(long trigram, int doc) {
+        Postings postings = postingsByTrigram.get(trigram);
+        if (postings != null && postings.remove(doc) && postings.size() == 0) {
+            postingsByTrigram.remove(trigram);
+        }
+    }
+
+    private void forEachTrigram(String value, TrigramConsumer consumer) {
+        for (int i = 0; i + TRIGRAM <= value.length(); i++) {
+            consumer.accept(trigram(value, i));
+        }
+    }
+
+    private long trigram(String value, int from) {
+        return ((long) value.charAt(from) << 32) | ((long) value.charAt(from + 1) << 16) | value.charAt(from + 2);
+    }
+
+    private long stringBytes(int doc) {
+        return 2L * (names[doc].length() + descriptions[doc].length() + upperNames[doc].length() +
+                upperDescriptions[doc].length()) + 4 * STRING_OVERHEAD_BYTES;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newLength = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newLength);
+        requestIds = Arrays.copyOf(requestIds, newLength);
+        names = Arrays.copyOf(names, newLength);
+        descriptions = Arrays.copyOf(descriptions, newLength);
+        upperNames = Arrays.copyOf(upperNames, newLength);
+        upperDescriptions = Arrays.copyOf(upperDescriptions, newLength);
+    }
+
+    private void updateMemoryBytes() {
+        memoryBytes = ids.length * (2L * Long.BYTES + 4L * Integer.BYTES) + stringBytes +
+                postingEntries * Integer.BYTES + postingsByTrigram.size() * TRIGRAM_ENTRY_BYTES +
+                docsById.size() * ID_ENTRY_BYTES + available.size() / Byte.SIZE;
+        if (memoryBytes > maxMemoryBytes) {
+            log.warn("Индекс поиска превысил бюджет памяти ({} > {} байт) и отключен, поиск выполняется в базе.",
+                    memoryBytes, maxMemoryBytes);
+            overBudget = true;
+            docsById.clear();
+            postingsByTrigram.clear();
+            available.clear();
+            ids = new long[0];
+            names = new String[0];
+            descriptions = new String[0];
+            upperNames = new String[0];
+            upperDescriptions = new String[0];
+            size = 0;
+            stringBytes = 0;
+            postingEntries = 0;
+            memoryBytes = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface TrigramConsumer {
+        void accept(long trigram);
+    }
+
+    private record Match(int rank, long id, int doc) {
+    }
+
+    private final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, position, docs, position + 1, size - position);
+            docs[position] = doc;
+            size++;
+            postingEntries++;
+        }
+
+        boolean remove(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            size--;
+            postingEntries--;
+            return true;
+        }
+
+        int[] retain(int[] sortedDocs) {
+            int[] result = new int[Math.min(sortedDocs.length, size)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sortedDocs.length && j < size) {
+                if (sortedDocs[i] < docs[j]) {
+                    i++;
+                } else if (sortedDocs[i] > docs[j]) {
+                    j++;
+                } else {
+                    result[count++] = sortedDocs[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.item.dto.CreateItemDto;
@@ -7,17 +8,26 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemDto addNewItem(Long userId, CreateItemDto item);
 
+    List<ItemDto> addNewItems(Long userId, List<CreateItemDto> items);
+
     ItemDto updateItem(Long userId, UpdateItemDto item);
 
     ItemWithBookingDto getItem(Long userId, Long itemId);
 
+    // Пусто, если notModified принял ETag предмета: тогда предмет не читается. Владельцу ETag не проверяется.
+    Optional<ItemWithBookingDto> getItem(Long userId, Long itemId, Predicate<String> notModified);
+
     List<ItemWithBookingDto> getItems(Long userId);
 
-    List<ItemDto> findItems(Long userId, String text);
+    List<ItemWithBookingDto> getItemsOverview(Long userId);
+
+    List<ItemDto> findItems(Long userId, String text, Pageable page);
 
     CommentDto addComment(Long userId, Long itemId, CreateCommentDto comment);
 }
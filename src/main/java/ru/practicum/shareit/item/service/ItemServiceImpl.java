@@ -1,8 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
@@ -13,6 +17,7 @@ import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CreateCommentDto;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.etag.VersionEtags;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.dto.CreateItemDto;
@@ -21,24 +26,37 @@ import ru.practicum.shareit.item.dto.ItemWithBookingDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemVersion;
+import ru.practicum.shareit.item.ItemWithBookingRow;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("shareit.service")
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ObjectProvider<ItemSearchIndex> itemSearchIndex;
 
     @Override
     public ItemDto addNewItem(Long userId, CreateItemDto item) {
@@ -47,8 +65,48 @@ public class ItemServiceImpl implements ItemService {
                 () -> new EntityNotFoundException("Пользователь не найден"));
         Item newItem = ItemMapper.toItemCreate(item);
         newItem.setOwner(user);
+        if (item.getRequestId() != null) {
+            log.debug("Поиск запроса с ID {}, на который отвечает предмет.", item.getRequestId());
+            newItem.setRequest(itemRequestRepository.findById(item.getRequestId()).orElseThrow(
+                    () -> new EntityNotFoundException("Запрос не найден")));
+        }
         log.debug("Создание предмета {}.", item);
-        return ItemMapper.toItemDto(itemRepository.save(newItem));
+        ItemDto createdItem = ItemMapper.toItemDto(itemRepository.save(newItem));
+        itemSearchIndex.ifAvailable(index -> index.putAfterCommit(createdItem));
+        return createdItem;
+    }
+
+    @Override
+    public List<ItemDto> addNewItems(Long userId, List<CreateItemDto> items) {
+        log.debug("Поиск пользователя с ID {}, создающего предметы.", userId);
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new EntityNotFoundException("Пользователь не найден"));
+        Set<Long> requestIds = items.stream()
+                .map(CreateItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Collections.emptyMap() :
+                itemRequestRepository.findAllById(requestIds).stream()
+                        .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> newItems = new ArrayList<>(items.size());
+        for (CreateItemDto item : items) {
+            Item newItem = ItemMapper.toItemCreate(item);
+            newItem.setOwner(user);
+            if (item.getRequestId() != null) {
+                ItemRequest request = requests.get(item.getRequestId());
+                if (request == null) {
+                    throw new EntityNotFoundException("Запрос с ID " + item.getRequestId() + " не найден");
+                }
+                newItem.setRequest(request);
+            }
+            newItems.add(newItem);
+        }
+        log.debug("Создание {} предметов.", newItems.size());
+        List<ItemDto> createdItems = itemRepository.saveAll(newItems).stream()
+                .map(ItemMapper::toItemDto)
+                .toList();
+        itemSearchIndex.ifAvailable(index -> index.putAllAfterCommit(createdItems));
+        return createdItems;
     }
 
     @Override
@@ -73,14 +131,16 @@ public class ItemServiceImpl implements ItemService {
             updateItem.setAvailable(item.getAvailable());
         }
         log.debug("Обновление предмета.");
-        return ItemMapper.toItemDto(itemRepository.save(updateItem));
+        ItemDto updatedItem = ItemMapper.toItemDto(itemRepository.save(updateItem));
+        itemSearchIndex.ifAvailable(index -> index.putAfterCommit(updatedItem));
+        return updatedItem;
     }
 
     @Override
     @Transactional(readOnly = true)
     public ItemWithBookingDto getItem(Long userId, Long itemId) {
         log.debug("Поиск пользователя с ID {}.", userId);
-        if (!userRepository.existsById(userId)) {
+        if (userRepository.findById(userId).isEmpty()) {
             throw new EntityNotFoundException("Пользователь не найден");
         }
         log.debug("Получение предмета по ID {}.", itemId);
@@ -90,16 +150,10 @@ public class ItemServiceImpl implements ItemService {
         LocalDateTime lastBooking = null;
         LocalDateTime nextBooking = null;
         if (item.getOwner().getId().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-            List<BookingDates> allBookingsOfItem = bookingRepository.findAllBookingsByItemId(itemId);
-            for (BookingDates booking : allBookingsOfItem) {
-                if (booking.getEnd().isBefore(now)) {
-                    lastBooking = booking.getEnd();
-                } else if (booking.getStart().isAfter(now)) {
-                    nextBooking = booking.getStart();
-                    break;
-                }
-            }
+            Optional<BookingDates> bookingDates = bookingRepository.findLastAndNextBookingByItemId(itemId,
+                    LocalDateTime.now());
+            lastBooking = bookingDates.map(BookingDates::getLastBooking).orElse(null);
+            nextBooking = bookingDates.map(BookingDates::getNextBooking).orElse(null);
         }
         ItemWithBookingDto itemDto = ItemMapper.toItemWithBookingDto(item, lastBooking, nextBooking);
         log.debug("Поиск всех комментариев к предмету.");
@@ -111,38 +165,41 @@ public class ItemServiceImpl implements ItemService {
         return itemDto;
     }
 
+    // Версия и чтение в одной транзакции: тело ответа не старше ETag, даже если чтения уходят на реплики.
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ItemWithBookingDto> getItem(Long userId, Long itemId, Predicate<String> notModified) {
+        log.debug("Получение версии предмета с ID {}.", itemId);
+        Optional<ItemVersion> version = itemRepository.findVersion(itemId, userId);
+        if (version.isPresent() && !userId.equals(version.get().getOwnerId())
+                && notModified.test(VersionEtags.etag(version.get().getVersion(), version.get().getComments(),
+                version.get().getLastCommentId(), version.get().getAuthorsVersion()))) {
+            log.debug("Предмет с ID {} не изменился.", itemId);
+            return Optional.empty();
+        }
+        return Optional.of(getItem(userId, itemId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ItemWithBookingDto> getItems(Long userId) {
         log.debug("Поиск пользователя с ID {}.", userId);
-        if (!userRepository.existsById(userId)) {
+        if (userRepository.findById(userId).isEmpty()) {
             throw new EntityNotFoundException("Пользователь не найден");
         }
         log.debug("Получение списка всех предметов пользователя с ID {}.", userId);
         List<Item> items = itemRepository.findByOwnerId(userId);
-        List<BookingDates> bookingsDates = bookingRepository.findAllBookingsByOwnerId(userId);
-        Map<Long, List<BookingDates>> bookingsByItem = bookingsDates.stream()
-                .collect(Collectors.groupingBy(BookingDates::getItemId));
-        List<Comment> comments = commentRepository.findAll();
+        Map<Long, BookingDates> bookingDatesByItem = bookingRepository.findLastAndNextBookingsByOwnerId(userId,
+                        LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(BookingDates::getItemId, Function.identity()));
+        List<Comment> comments = commentRepository.findAllByItemOwnerId(userId);
         Map<Long, List<Comment>> commentsByItem = comments.stream()
                 .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
-        LocalDateTime now = LocalDateTime.now();
         return items.stream()
                 .map(item -> {
-                    List<BookingDates> itemBookings = bookingsByItem.getOrDefault(
-                            item.getId(),
-                            Collections.emptyList());
-                    log.debug("Поиск дат букинга.");
-                    LocalDateTime lastBooking = null;
-                    LocalDateTime nextBooking = null;
-                    for (BookingDates booking : itemBookings) {
-                        if (booking.getEnd().isBefore(now)) {
-                            lastBooking = booking.getEnd();
-                        } else if (booking.getStart().isAfter(now)) {
-                            nextBooking = booking.getStart();
-                            break;
-                        }
-                    }
+                    BookingDates bookingDates = bookingDatesByItem.get(item.getId());
+                    LocalDateTime lastBooking = bookingDates == null ? null : bookingDates.getLastBooking();
+                    LocalDateTime nextBooking = bookingDates == null ? null : bookingDates.getNextBooking();
                     List<CommentDto> commentsDto = commentsByItem.getOrDefault(item.getId(),
                                     Collections.emptyList()).stream()
                             .map(CommentMapper::toCommentDto)
@@ -156,12 +213,41 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> findItems(Long userId, String text) {
+    public List<ItemWithBookingDto> getItemsOverview(Long userId) {
+        log.debug("Поиск пользователя с ID {}.", userId);
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+        log.debug("Получение сводки по всем предметам пользователя с ID {}.", userId);
+        List<ItemWithBookingRow> rows = itemRepository.findRowsWithBookingsByOwnerId(userId, LocalDateTime.now());
+        // Строки отсортированы по ID предмета, поэтому предмет собирается из идущих подряд строк.
+        List<ItemWithBookingDto> items = new ArrayList<>();
+        ItemWithBookingDto current = null;
+        for (ItemWithBookingRow row : rows) {
+            if (current == null || current.getId() != row.getItemId()) {
+                current = ItemMapper.toItemWithBookingDto(row);
+                items.add(current);
+            }
+            if (row.getCommentId() != null) {
+                current.getComments().add(CommentMapper.toCommentDto(row));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<ItemDto> findItems(Long userId, String text, Pageable page) {
         if (text == null || text.isBlank()) {
             log.debug("Если текст для поиска не задан, результат- пустой список.");
             return Collections.emptyList();
         }
-        return itemRepository.search(text).stream()
+        ItemSearchIndex index = itemSearchIndex.getIfAvailable();
+        if (index != null && index.isServing()) {
+            log.debug("Поиск предметов в индексе.");
+            return index.search(text, page);
+        }
+        return itemRepository.search(text, page).stream()
                 .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .toList();
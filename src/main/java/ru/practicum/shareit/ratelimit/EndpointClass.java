@@ -0,0 +1,26 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Классы эндпоинтов с общим лимитом одновременных запросов.
+public enum EndpointClass {
+    SEARCH,
+    BOOKING_LISTS,
+    WRITE,
+    OTHER;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return WRITE;
+        }
+        String path = request.getServletPath();
+        if (path.equals("/items/search")) {
+            return SEARCH;
+        }
+        if (path.equals("/bookings") || path.startsWith("/bookings/owner") || path.equals("/bookings/export") ||
+                path.equals("/bookings/compact")) {
+            return BOOKING_LISTS;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exception.ErrorResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Фильтр срабатывает до DispatcherServlet, поэтому отклоненный запрос не доходит до сервисов и не берет
+// соединение из пула. Сначала проверяется частота запросов пользователя из X-Sharer-User-Id, затем лимит
+// одновременных запросов класса эндпоинта; лимиты не ждут освобождения, а сразу отвечают 429.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final UserRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<EndpointClass, Semaphore> permits = new EnumMap<>(EndpointClass.class);
+
+    public RateLimitFilter(@Value("${shareit.rate-limit.requests-per-second}") double requestsPerSecond,
+                           @Value("${shareit.rate-limit.burst}") int burst,
+                           @Value("${shareit.rate-limit.max-users}") int maxUsers,
+                           @Value("${shareit.rate-limit.concurrency.search}") int searchLimit,
+                           @Value("${shareit.rate-limit.concurrency.booking-lists}") int bookingListsLimit,
+                           @Value("${shareit.rate-limit.concurrency.write}") int writeLimit,
+                           @Value("${shareit.rate-limit.concurrency.other}") int otherLimit,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = new UserRateLimiter(requestsPerSecond, burst, maxUsers);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        permits.put(EndpointClass.SEARCH, new Semaphore(searchLimit));
+        permits.put(EndpointClass.BOOKING_LISTS, new Semaphore(bookingListsLimit));
+        permits.put(EndpointClass.WRITE, new Semaphore(writeLimit));
+        permits.put(EndpointClass.OTHER, new Semaphore(otherLimit));
+        Map<EndpointClass, Integer> limits = Map.of(EndpointClass.SEARCH, searchLimit,
+                EndpointClass.BOOKING_LISTS, bookingListsLimit, EndpointClass.WRITE, writeLimit,
+                EndpointClass.OTHER, otherLimit);
+        permits.forEach((endpoint, semaphore) -> Gauge.builder("shareit.http.in-flight",
+                        semaphore, s -> limits.get(endpoint) - s.availablePermits())
+                .description("Запросы класса эндпоинта, обрабатываемые в данный момент")
+                .tag("endpoint", endpoint.name())
+                .register(meterRegistry));
+        Gauge.builder("shareit.rate-limit.users", rateLimiter, UserRateLimiter::size)
+                .description("Пользователи, для которых хранится состояние ограничителя частоты")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpoint = EndpointClass.of(request);
+        Long userId = parseUserId(request.getHeader(USER_ID_HEADER));
+        if (userId != null) {
+            long waitNanos = rateLimiter.tryAcquire(userId);
+            if (waitNanos > 0) {
+                log.debug("Превышена частота запросов пользователя с ID {}.", userId);
+                reject(response, endpoint, "rate", TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1,
+                        "Слишком много запросов, повторите позже.");
+                return;
+            }
+        }
+        Semaphore semaphore = permits.get(endpoint);
+        if (!semaphore.tryAcquire()) {
+            log.debug("Превышен лимит одновременных запросов класса {}.", endpoint);
+            reject(response, endpoint, "concurrency", 1, "Сервис перегружен, повторите позже.");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Выгрузки пишут ответ в другом потоке, разрешение освобождается по завершении асинхронного запроса.
+                request.getAsyncContext().addListener(new ReleasingListener(semaphore));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpoint, String reason, long retryAfterSeconds,
+                        String message) throws IOException {
+        Counter.builder("shareit.http.rejected")
+                .description("Запросы, отклоненные с 429")
+                .tag("endpoint", endpoint.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), message));
+    }
+
+    // Некорректный заголовок не ограничивается здесь: контроллер сам ответит на него 400.
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class ReleasingListener implements AsyncListener {
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingListener(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket пользователя в форме GCRA: состояние корзины - одно число, теоретическое время следующего запроса
+// (TAT). Запрос проходит, если после сдвига TAT на интервал он опережает текущее время не больше чем на burst
+// интервалов; сдвиг делается CAS без блокировок. Корзина с TAT в прошлом полна и не отличается от отсутствующей,
+// поэтому такие записи удаляются, когда полоса карты заполнена. Если полоса заполнена активными пользователями,
+// вытесняются произвольные записи: вытесненный пользователь получает полную корзину, память остается ограниченной.
+// Полоса очищается сразу до 90% емкости, так что полный обход карты приходится на десятую часть новых
+// пользователей полосы, а не на каждого.
+public class UserRateLimiter {
+    private static final int STRIPES = 16;
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxUsersPerStripe;
+    private final int evictToPerStripe;
+    private final ConcurrentHashMap<Long, AtomicLong>[] stripes;
+    private final LongSupplier nanoClock;
+
+    public UserRateLimiter(double requestsPerSecond, int burst, int maxUsers) {
+        this(requestsPerSecond, burst, maxUsers, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    UserRateLimiter(double requestsPerSecond, int burst, int maxUsers, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.maxUsersPerStripe = Math.max(1, maxUsers / STRIPES);
+        this.evictToPerStripe = maxUsersPerStripe * 9 / 10;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    // Возвращает 0, если запрос разрешен, иначе - сколько наносекунд ждать до следующего разрешенного запроса.
+    public long tryAcquire(long userId) {
+        long now = nanoClock.getAsLong();
+        ConcurrentHashMap<Long, AtomicLong> stripe = stripes[Long.hashCode(userId) & (STRIPES - 1)];
+        AtomicLong tat = stripe.get(userId);
+        if (tat == null) {
+            if (stripe.size() >= maxUsersPerStripe) {
+                // Пока один поток чистит полосу, остальные новые пользователи полосы ждут, а не обходят ее заново.
+                synchronized (stripe) {
+                    if (stripe.size() >= maxUsersPerStripe) {
+                        evict(stripe, now);
+                    }
+                }
+            }
+            tat = stripe.computeIfAbsent(userId, id -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = tat.get();
+            long next = (current - now > 0 ? current : now) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<Long, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void evict(ConcurrentHashMap<Long, AtomicLong> stripe, long now) {
+        stripe.values().removeIf(tat -> tat.get() - now <= 0);
+        Iterator<Long> users = stripe.keySet().iterator();
+        while (stripe.size() > evictToPerStripe && users.hasNext()) {
+            users.next();
+            users.remove();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.replica;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Пользователь, только что изменивший данные, в течение sticky-window читает из основной базы и не видит
+// на отстающей реплике состояние до своего изменения. Окно должно быть больше max-lag: позже реплика либо
+// догнала изменение, либо исключена из чтения по отставанию. Привязка хранится в памяти процесса.
+public class ReadYourWrites {
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final int maxUsers;
+    private final ConcurrentHashMap<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window, int maxUsers) {
+        this.windowNanos = window.toNanos();
+        this.maxUsers = maxUsers;
+    }
+
+    public void markWrite(Long userId) {
+        long now = System.nanoTime();
+        if (stickyUntil.size() >= maxUsers) {
+            stickyUntil.values().removeIf(until -> until - now <= 0);
+        }
+        stickyUntil.put(userId, now + windowNanos);
+    }
+
+    public boolean isCurrentUserSticky() {
+        Long userId = CURRENT_USER.get();
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    void setCurrentUser(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+}
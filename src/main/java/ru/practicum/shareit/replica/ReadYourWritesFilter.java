@@ -0,0 +1,52 @@
+package ru.practicum.shareit.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+// Изменяющий запрос отмечает пользователя и до начала обработки, и после нее: ответ мог уйти клиенту раньше,
+// чем закончилась обработка, а окно привязки должно отсчитываться от коммита.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.replica.enabled", havingValue = "true")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long userId = parseUserId(request.getHeader(USER_ID_HEADER));
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        if (userId != null && write) {
+            readYourWrites.markWrite(userId);
+        }
+        readYourWrites.setCurrentUser(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.clearCurrentUser();
+            if (userId != null && write) {
+                readYourWrites.markWrite(userId);
+            }
+        }
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
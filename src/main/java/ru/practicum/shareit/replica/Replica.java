@@ -0,0 +1,54 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Реплика и ее последнее известное состояние. До первой успешной проверки отставания реплика недоступна,
+// поэтому сразу после старта все чтения идут в основную базу.
+public class Replica {
+    @Getter
+    private final String name;
+    @Getter
+    private final HikariDataSource pool;
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile boolean available;
+
+    public Replica(String name, HikariDataSource pool) {
+        this.name = name;
+        this.pool = pool;
+    }
+
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    public Connection getConnection(String username, String password) throws SQLException {
+        return pool.getConnection(username, password);
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public int getActiveConnections() {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return mxBean == null ? 0 : mxBean.getActiveConnections();
+    }
+
+    public void lagMeasured(long lagMillis) {
+        this.lagMillis = lagMillis;
+        this.available = true;
+    }
+
+    public void markUnavailable() {
+        this.available = false;
+        this.lagMillis = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Заменяет DataSource Spring Boot: основной пул и пулы реплик настраиваются из spring.datasource.*,
+// реплики отличаются только адресом из shareit.replica.urls.
+@Configuration
+@ConditionalOnProperty(name = "shareit.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties, Environment environment,
+                                 @Value("${shareit.replica.urls}") List<String> urls,
+                                 @Value("${shareit.replica.strategy}") ReplicaSet.Strategy strategy,
+                                 @Value("${shareit.replica.max-lag}") Duration maxLag,
+                                 MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource pool = pool(properties, environment, urls.get(i), "shareit-" + name);
+            pool.setReadOnly(true);
+            replicas.add(new Replica(name, pool));
+        }
+        return new ReplicaSet(List.copyOf(replicas), strategy, maxLag, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${shareit.replica.sticky-window}") Duration stickyWindow,
+                                         @Value("${shareit.replica.sticky-max-users}") int maxUsers) {
+        return new ReadYourWrites(stickyWindow, maxUsers);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, ReplicaSet replicaSet,
+                                 ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "shareit-primary");
+        return new ReplicaRoutingDataSource(primary, replicaSet, readYourWrites, meterRegistry);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+                                         String poolName) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(poolName);
+        return pool;
+    }
+}
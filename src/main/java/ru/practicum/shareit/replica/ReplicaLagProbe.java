@@ -0,0 +1,56 @@
+package ru.practicum.shareit.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Запрос отставания по умолчанию для PostgreSQL: если реплика применила все полученное WAL, отставание 0,
+// иначе - время с последней примененной транзакции. Без этой проверки простаивающая основная база выглядела бы
+// как растущее отставание. Реплика, потерявшая поток WAL, тоже применила все полученное, поэтому запрос
+// возвращает NULL, если нет потока в состоянии streaming. NULL или пустой результат означают, что отставание
+// неизвестно, и реплика исключается из чтения. Для других баз запрос задается в shareit.replica.lag-query.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.replica.enabled", havingValue = "true")
+public class ReplicaLagProbe {
+    private final ReplicaSet replicaSet;
+    private final String lagQuery;
+
+    public ReplicaLagProbe(ReplicaSet replicaSet, @Value("${shareit.replica.lag-query}") String lagQuery) {
+        this.replicaSet = replicaSet;
+        this.lagQuery = lagQuery;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.replica.lag-check-interval}")
+    public void probe() {
+        for (Replica replica : replicaSet.getReplicas()) {
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                Long lagMillis = resultSet.next() ? resultSet.getLong(1) : null;
+                if (lagMillis == null || resultSet.wasNull()) {
+                    if (replica.isAvailable()) {
+                        log.warn("Отставание реплики {} неизвестно, чтение из основной базы.", replica.getName());
+                    }
+                    replica.markUnavailable();
+                    continue;
+                }
+                if (!replica.isAvailable()) {
+                    log.info("Реплика {} доступна, отставание {} мс.", replica.getName(), lagMillis);
+                }
+                replica.lagMeasured(lagMillis);
+            } catch (SQLException e) {
+                if (replica.isAvailable()) {
+                    log.warn("Реплика {} не отвечает, чтение из основной базы.", replica.getName(), e);
+                }
+                replica.markUnavailable();
+            }
+        }
+    }
+}
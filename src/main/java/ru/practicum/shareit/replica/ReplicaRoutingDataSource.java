@@ -0,0 +1,84 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+// Соединение берется лениво, при первом запросе. К этому моменту JpaTransactionManager уже пометил соединение
+// read-only для @Transactional(readOnly = true), и LazyConnectionDataSourceProxy берет его из readOnlyDataSource,
+// который выбирает реплику. Остальные транзакции, Flyway и фоновые задачи работают с основной базой.
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final HikariDataSource primary;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, ReplicaSet replicaSet, ReadYourWrites readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        setTargetDataSource(primary);
+        setReadOnlyDataSource(new ReadOnlyDataSource(primary, replicaSet, readYourWrites, meterRegistry));
+    }
+
+    @Override
+    public void close() {
+        primary.close();
+    }
+
+    private static class ReadOnlyDataSource extends AbstractDataSource {
+        private final HikariDataSource primary;
+        private final ReplicaSet replicaSet;
+        private final ReadYourWrites readYourWrites;
+        private final MeterRegistry meterRegistry;
+
+        ReadOnlyDataSource(HikariDataSource primary, ReplicaSet replicaSet, ReadYourWrites readYourWrites,
+                           MeterRegistry meterRegistry) {
+            this.primary = primary;
+            this.replicaSet = replicaSet;
+            this.readYourWrites = readYourWrites;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(null, null);
+        }
+
+        // Выбор реплики тот же, что и без учетных данных; поддерживает ли их пул, решает сам пул.
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(username, password);
+        }
+
+        private Connection route(String username, String password) throws SQLException {
+            if (readYourWrites.isCurrentUserSticky()) {
+                return primary("sticky", username, password);
+            }
+            Replica replica = replicaSet.choose();
+            if (replica == null) {
+                return primary("no-replica", username, password);
+            }
+            try {
+                Connection connection = username == null ? replica.getConnection() :
+                        replica.getConnection(username, password);
+                meterRegistry.counter("shareit.datasource.route", "target", replica.getName(), "reason", "read-only")
+                        .increment();
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                throw e;
+            } catch (SQLException e) {
+                log.warn("Реплика {} недоступна, чтение из основной базы.", replica.getName(), e);
+                replica.markUnavailable();
+                return primary("replica-error", username, password);
+            }
+        }
+
+        private Connection primary(String reason, String username, String password) throws SQLException {
+            meterRegistry.counter("shareit.datasource.route", "target", "primary", "reason", reason).increment();
+            return username == null ? primary.getConnection() : primary.getConnection(username, password);
+        }
+    }
+}
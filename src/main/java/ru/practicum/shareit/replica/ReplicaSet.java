@@ -0,0 +1,58 @@
+package ru.practicum.shareit.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Выбор реплики для чтения: только доступные реплики с отставанием не больше maxLag, по кругу или
+// с наименьшим числом занятых соединений. Если подходящей реплики нет, чтение идет в основную базу.
+public class ReplicaSet implements AutoCloseable {
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(List<Replica> replicas, Strategy strategy, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.strategy = strategy;
+        this.maxLagMillis = maxLag.toMillis();
+        replicas.forEach(replica -> Gauge.builder("shareit.datasource.replica.lag", replica,
+                        r -> r.isAvailable() ? r.getLagMillis() : Double.NaN)
+                .description("Отставание реплики по последней проверке")
+                .baseUnit("milliseconds")
+                .tag("replica", replica.getName())
+                .register(meterRegistry));
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public Replica choose() {
+        List<Replica> candidates = replicas.stream()
+                .filter(replica -> replica.isAvailable() && replica.getLagMillis() <= maxLagMillis)
+                .toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return switch (strategy) {
+            case Strategy.ROUND_ROBIN -> candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+            case Strategy.LEAST_CONNECTIONS -> candidates.stream()
+                    .min(Comparator.comparingInt(Replica::getActiveConnections))
+                    .orElseThrow();
+        };
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.getPool().close());
+    }
+}
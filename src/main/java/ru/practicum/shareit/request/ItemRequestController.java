@@ -1,9 +1,52 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import java.util.List;
 
+@Slf4j
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
+
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto addRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @Valid @RequestBody CreateItemRequestDto request) {
+        log.debug("Создание запроса {} пользователем с ID {}.", request, userId);
+        return itemRequestService.addRequest(userId, request);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwnRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Получение запросов пользователя с ID {}.", userId);
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> getOtherUsersRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                      @RequestParam(defaultValue = "20") @Positive Integer size) {
+        log.debug("Получение запросов других пользователей пользователем с ID {}.", userId);
+        return itemRequestService.getOtherUsersRequests(userId, OffsetPageRequest.of(from, size));
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     @PathVariable @Positive Long requestId) {
+        log.debug("Получение запроса с ID {} пользователем с ID {}.", requestId, userId);
+        return itemRequestService.getRequest(userId, requestId);
+    }
 }
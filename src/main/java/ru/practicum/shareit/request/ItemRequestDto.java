@@ -1,4 +0,0 @@
-package ru.practicum.shareit.request;
-
-public class ItemRequestDto {
-}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.request;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@UtilityClass
+public class ItemRequestMapper {
+    public ItemRequest toItemRequest(CreateItemRequestDto requestDto, User requestor) {
+        return ItemRequest.builder()
+                .description(requestDto.getDescription())
+                .requestor(requestor)
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    public ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemAnswerDto> items) {
+        return ItemRequestDto.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items)
+                .build();
+    }
+
+    public ItemAnswerDto toItemAnswerDto(Item item) {
+        return ItemAnswerDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .ownerId(item.getOwner().getId())
+                .build();
+    }
+}
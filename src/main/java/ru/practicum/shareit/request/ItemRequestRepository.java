@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId);
+
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId, Pageable page);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateItemRequestDto {
+    @NotBlank(message = "Описание запроса обязательно.")
+    @Size(max = 255, message = "Описание запроса не может быть длиннее 255 символов.")
+    private String description;
+}
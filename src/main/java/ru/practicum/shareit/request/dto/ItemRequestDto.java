@@ -0,0 +1,19 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemRequestDto {
+    private Long id;
+    private String description;
+    private LocalDateTime created;
+    private List<ItemAnswerDto> items;
+}
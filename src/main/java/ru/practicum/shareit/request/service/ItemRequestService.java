@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import java.util.List;
+
+public interface ItemRequestService {
+    ItemRequestDto addRequest(Long userId, CreateItemRequestDto requestDto);
+
+    List<ItemRequestDto> getOwnRequests(Long userId);
+
+    List<ItemRequestDto> getOtherUsersRequests(Long userId, Pageable page);
+
+    ItemRequestDto getRequest(Long userId, Long requestId);
+}
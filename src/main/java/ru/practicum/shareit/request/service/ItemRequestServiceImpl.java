@@ -0,0 +1,93 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.dto.CreateItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Timed("shareit.service")
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public ItemRequestDto addRequest(Long userId, CreateItemRequestDto requestDto) {
+        log.debug("Поиск пользователя с ID {}, создающего запрос.", userId);
+        User requestor = userRepository.findById(userId).orElseThrow(
+                () -> new EntityNotFoundException("Пользователь не найден"));
+        log.debug("Создание запроса {}.", requestDto);
+        ItemRequest request = requestRepository.save(ItemRequestMapper.toItemRequest(requestDto, requestor));
+        return ItemRequestMapper.toItemRequestDto(request, Collections.emptyList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwnRequests(Long userId) {
+        checkUserExists(userId);
+        log.debug("Получение запросов пользователя с ID {}.", userId);
+        return withAnswers(requestRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOtherUsersRequests(Long userId, Pageable page) {
+        checkUserExists(userId);
+        log.debug("Получение запросов других пользователей для пользователя с ID {}.", userId);
+        return withAnswers(requestRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, page));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto getRequest(Long userId, Long requestId) {
+        checkUserExists(userId);
+        log.debug("Получение запроса с ID {}.", requestId);
+        ItemRequest request = requestRepository.findById(requestId).orElseThrow(
+                () -> new EntityNotFoundException("Запрос не найден"));
+        return withAnswers(List.of(request)).getFirst();
+    }
+
+    private void checkUserExists(Long userId) {
+        log.debug("Поиск пользователя с ID {}.", userId);
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new EntityNotFoundException("Пользователь не найден");
+        }
+    }
+
+    // Ответы на все запросы страницы загружаются одним запросом к items.
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+        Map<Long, List<ItemAnswerDto>> answersByRequest = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemRequestMapper::toItemAnswerDto, Collectors.toList())));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answersByRequest.getOrDefault(request.getId(), Collections.emptyList())))
+                .toList();
+    }
+}
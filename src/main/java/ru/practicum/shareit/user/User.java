@@ -2,9 +2,13 @@ package ru.practicum.shareit.user;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Setter
 @Getter
 @NoArgsConstructor
@@ -21,4 +25,8 @@ public class User {
 
     @Column(name = "email", nullable = false, unique = true, length = 100)
     private String email;
-}
\ No newline at end of file
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -4,8 +4,10 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -35,9 +37,11 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public UserDto getUser(@PathVariable @Positive Long userId) {
+    public ResponseEntity<UserDto> getUser(@PathVariable @Positive Long userId, WebRequest request) {
         log.debug("Получение пользователя с ID {}.", userId);
-        return userService.getUser(userId);
+        return userService.getUser(userId, request::checkNotModified)
+                .map(ResponseEntity::ok)
+                .orElse(null);
     }
 
     @DeleteMapping("/{userId}")
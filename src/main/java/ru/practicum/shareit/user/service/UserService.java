@@ -3,6 +3,8 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.CreateUserDto;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 public interface UserService {
     CreateUserDto create(CreateUserDto user);
@@ -11,5 +13,8 @@ public interface UserService {
 
     UserDto getUser(Long userId);
 
+    // Пусто, если notModified принял ETag пользователя: тогда пользователь не читается.
+    Optional<UserDto> getUser(Long userId, Predicate<String> notModified);
+
     UserDto delete(Long userId);
 }
@@ -1,9 +1,11 @@
 package ru.practicum.shareit.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.VersionEtags;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.CreateUserDto;
@@ -11,11 +13,14 @@ import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.UserRepository;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("shareit.service")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
@@ -59,6 +64,18 @@ public class UserServiceImpl implements UserService {
         ));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserDto> getUser(Long userId, Predicate<String> notModified) {
+        log.debug("Получение версии пользователя с ID {}.", userId);
+        Optional<Long> version = repository.findVersionById(userId);
+        if (version.isPresent() && notModified.test(VersionEtags.etag(version.get()))) {
+            log.debug("Пользователь с ID {} не изменился.", userId);
+            return Optional.empty();
+        }
+        return Optional.of(getUser(userId));
+    }
+
     @Override
     public UserDto delete(Long userId) {
         User user = repository.findById(userId)
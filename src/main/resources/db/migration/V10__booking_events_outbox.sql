@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS booking_events (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY (INCREMENT BY 50) NOT NULL,
+  type VARCHAR(50) NOT NULL,
+  booking_id BIGINT NOT NULL,
+  payload TEXT NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_booking_event PRIMARY KEY (id)
+);
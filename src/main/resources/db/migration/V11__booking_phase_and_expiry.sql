@@ -0,0 +1,21 @@
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(20);
+
+-- Время букингов хранится в UTC (hibernate.jdbc.time_zone=UTC). LOCALTIMESTAMP берется в часовом поясе сессии
+-- и при поясе восточнее UTC продвинул бы фазу будущих букингов раньше времени, а назад фаза не возвращается.
+UPDATE bookings SET phase = CASE
+  WHEN end_date < (now() AT TIME ZONE 'UTC') THEN 'PAST'
+  WHEN start_date <= (now() AT TIME ZONE 'UTC') THEN 'CURRENT'
+  ELSE 'FUTURE'
+END;
+
+ALTER TABLE bookings ALTER COLUMN phase SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_phase_start ON bookings (booker_id, phase, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_phase_start ON bookings (item_id, phase, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_future_start ON bookings (start_date) WHERE phase = 'FUTURE';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_current_end ON bookings (end_date) WHERE phase = 'CURRENT';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_waiting_start ON bookings (start_date) WHERE status = 'WAITING';
@@ -0,0 +1,8 @@
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS dead_lettered_at TIMESTAMP WITHOUT TIME ZONE;
+
+ALTER TABLE booking_events ADD COLUMN IF NOT EXISTS last_error TEXT;
+
+-- Ретранслятор выбирает только недоставленные события; отложенные строки остаются в таблице до ручного разбора.
+CREATE INDEX IF NOT EXISTS idx_booking_events_pending ON booking_events (id) WHERE dead_lettered_at IS NULL;
@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_available_name_trgm
+  ON items USING gin (upper(name) gin_trgm_ops) WHERE is_available = true;
+
+CREATE INDEX IF NOT EXISTS idx_items_available_description_trgm
+  ON items USING gin (upper(description) gin_trgm_ops) WHERE is_available = true;
@@ -0,0 +1,7 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
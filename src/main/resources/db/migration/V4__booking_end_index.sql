@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
@@ -0,0 +1,5 @@
+ALTER TABLE items ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE items ALTER COLUMN id SET INCREMENT BY 50;
+
+ALTER TABLE bookings ALTER COLUMN id SET GENERATED BY DEFAULT;
+ALTER TABLE bookings ALTER COLUMN id SET INCREMENT BY 50;
@@ -0,0 +1,43 @@
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+  item_id BIGINT NOT NULL,
+  owner_id BIGINT NOT NULL,
+  total_count INTEGER NOT NULL,
+  current_count INTEGER NOT NULL,
+  past_count INTEGER NOT NULL,
+  future_count INTEGER NOT NULL,
+  waiting_count INTEGER NOT NULL,
+  rejected_count INTEGER NOT NULL,
+  last_booking TIMESTAMP WITHOUT TIME ZONE,
+  next_booking TIMESTAMP WITHOUT TIME ZONE,
+  next_transition_at TIMESTAMP WITHOUT TIME ZONE,
+  refreshed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_booking_summary_to_items FOREIGN KEY(item_id) REFERENCES items(id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_item_booking_summary_owner ON item_booking_summary (owner_id, item_id);
+
+CREATE INDEX IF NOT EXISTS ix_item_booking_summary_next_transition ON item_booking_summary (next_transition_at)
+  WHERE next_transition_at IS NOT NULL;
+
+-- Время букингов хранится в UTC (hibernate.jdbc.time_zone=UTC), поэтому "сейчас" берется в UTC, а не в часовом
+-- поясе сессии.
+INSERT INTO item_booking_summary (item_id, owner_id, total_count, current_count, past_count, future_count,
+                                  waiting_count, rejected_count, last_booking, next_booking, next_transition_at,
+                                  refreshed_at)
+SELECT i.id, i.owner_id,
+       COUNT(b.id),
+       COUNT(b.id) FILTER (WHERE b.start_date <= c.utc_now AND b.end_date >= c.utc_now),
+       COUNT(b.id) FILTER (WHERE b.end_date < c.utc_now),
+       COUNT(b.id) FILTER (WHERE b.start_date > c.utc_now),
+       COUNT(b.id) FILTER (WHERE b.status = 'WAITING'),
+       COUNT(b.id) FILTER (WHERE b.status = 'REJECTED'),
+       MAX(b.end_date) FILTER (WHERE b.end_date < c.utc_now),
+       MIN(b.start_date) FILTER (WHERE b.start_date > c.utc_now),
+       LEAST(MIN(b.start_date) FILTER (WHERE b.start_date > c.utc_now),
+             MIN(b.end_date) FILTER (WHERE b.end_date >= c.utc_now)),
+       c.utc_now
+FROM items i
+JOIN bookings b ON b.item_id = i.id
+CROSS JOIN (SELECT now() AT TIME ZONE 'UTC' AS utc_now) c
+GROUP BY i.id, i.owner_id, c.utc_now;
@@ -0,0 +1,5 @@
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id) WHERE request_id IS NOT NULL;
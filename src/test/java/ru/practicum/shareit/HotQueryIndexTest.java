@@ -0,0 +1,231 @@
+package ru.practicum.shareit;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Планы горячих запросов букингов, предметов и отзывов на Postgres со схемой из миграций Flyway: каждый
+// запрос должен читать свой индекс из V3, V4 или V11, а не последовательно сканировать таблицу.
+// Объясняется не переписанный вручную SQL, а тот, что Hibernate отправил в базу при вызове метода репозитория:
+// запрос и его параметры перехватываются datasource-proxy и повторяются в EXPLAIN с теми же значениями.
+// Нужен Docker; без него тест пропускается.
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@Import(HotQueryIndexTest.CaptureConfig.class)
+class HotQueryIndexTest {
+    private static final int USERS = 1_000;
+    private static final int ITEMS = 5_000;
+    private static final int BOOKINGS = 100_000;
+    private static final int COMMENTS = 20_000;
+    private static final long BOOKER_ID = 42;
+    private static final long OWNER_ID = 7;
+    private static final long ITEM_ID = 123;
+    private static final BookingCursor FIRST = BookingCursor.first();
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final List<QueryInfo> CAPTURED = new ArrayList<>();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbcTemplate.update("INSERT INTO users (id, name, email) SELECT g, 'Пользователь ' || g, " +
+                "'user' || g || '@shareit.ru' FROM generate_series(1, ?) g", USERS);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, is_available, owner_id) SELECT g, " +
+                "'Предмет ' || g, 'Описание предмета ' || g, true, 1 + g % ? FROM generate_series(1, ?) g",
+                USERS, ITEMS);
+        // Статус WAITING не попадает под ограничение ex_bookings_approved_overlap, поэтому пересечения допустимы.
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, phase) " +
+                "SELECT g, s, s + INTERVAL '2 hours', 1 + g % ?, 1 + (g * 7) % ?, 'WAITING', CASE " +
+                "WHEN s + INTERVAL '2 hours' < LOCALTIMESTAMP THEN 'PAST' " +
+                "WHEN s <= LOCALTIMESTAMP THEN 'CURRENT' ELSE 'FUTURE' END " +
+                "FROM (SELECT g, LOCALTIMESTAMP + (g % 400 - 200) * INTERVAL '1 day' + g * INTERVAL '1 second' AS s " +
+                "FROM generate_series(1, ?) g) seed", ITEMS, USERS, BOOKINGS);
+        jdbcTemplate.update("INSERT INTO comments (text, item_id, author_id, created) SELECT 'Отзыв ' || g, " +
+                "1 + g % ?, 1 + g % ?, LOCALTIMESTAMP - g * INTERVAL '1 minute' FROM generate_series(1, ?) g",
+                ITEMS, USERS, COMMENTS);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerBookingsUseBookerStartIndex() {
+        assertUsesIndex("idx_bookings_booker_start", captureQuery(() -> bookingRepository.findAllByBookerId(
+                BOOKER_ID, FIRST.getStart(), FIRST.getId(), PageRequest.ofSize(20))));
+    }
+
+    @Test
+    void bookerFutureBookingsUseBookerPhaseIndex() {
+        assertUsesIndex("idx_bookings_booker_phase_start", captureQuery(() ->
+                bookingRepository.findAllByBookerIdAndStartAfter(BOOKER_ID, LocalDateTime.now(), FIRST.getStart(),
+                        FIRST.getId(), PageRequest.ofSize(20))));
+    }
+
+    @Test
+    void ownerItemsUseOwnerIndex() {
+        assertUsesIndex("idx_items_owner", captureQuery(() -> itemRepository.findByOwnerId(OWNER_ID)));
+    }
+
+    @Test
+    void ownerBookingsUseOwnerIndex() {
+        assertUsesIndex("idx_items_owner", captureQuery(() -> bookingRepository.findAllByItemOwnerId(OWNER_ID,
+                FIRST.getStart(), FIRST.getId(), PageRequest.ofSize(20))));
+    }
+
+    @Test
+    void lastAndNextBookingUseItemEndAndItemStartIndexes() {
+        QueryInfo query = captureQuery(() -> bookingRepository.findLastAndNextBookingByItemId(ITEM_ID,
+                LocalDateTime.now()));
+
+        assertUsesIndex("idx_bookings_item_end", query);
+        assertUsesIndex("idx_bookings_item_start", query);
+    }
+
+    @Test
+    void itemCommentsUseItemCreatedIndex() {
+        assertUsesIndex("idx_comments_item_created", captureQuery(() ->
+                commentRepository.findAllByItemIdOrderByCreatedDesc(ITEM_ID)));
+    }
+
+    @Test
+    void sweeperUsesFutureStartIndex() {
+        assertUsesIndex("idx_bookings_future_start", captureQuery(() ->
+                bookingRepository.advanceToCurrent(LocalDateTime.now(), 500)));
+    }
+
+    // Метод репозитория выполняется в откатываемой транзакции: обновления фаз не меняют данные других тестов.
+    private QueryInfo captureQuery(Runnable call) {
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            call.run();
+            status.setRollbackOnly();
+        });
+        synchronized (CAPTURED) {
+            assertEquals(1, CAPTURED.size(), "Ожидался один SQL-запрос: " + CAPTURED.stream()
+                    .map(QueryInfo::getQuery)
+                    .toList());
+            return CAPTURED.getFirst();
+        }
+    }
+
+    private void assertUsesIndex(String index, QueryInfo query) {
+        List<String> plan = explain(query);
+        String text = String.join("\n", plan);
+
+        assertTrue(plan.stream().anyMatch(line -> line.contains("Index") && line.contains(" " + index)),
+                "Ожидалось чтение индекса " + index + " в запросе\n" + query.getQuery() + ":\n" + text);
+    }
+
+    private List<String> explain(QueryInfo query) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getQuery())) {
+            for (ParameterSetOperation operation : query.getParametersList().getFirst()) {
+                operation.getMethod().invoke(statement, operation.getArgs());
+            }
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+            return plan;
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Не удалось получить план запроса " + query.getQuery(), e);
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor capturingDataSourceWrapper() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name(beanName)
+                                .listener(new CapturingListener())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private static class CapturingListener implements QueryExecutionListener {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            synchronized (CAPTURED) {
+                CAPTURED.addAll(queryInfoList);
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+    }
+}
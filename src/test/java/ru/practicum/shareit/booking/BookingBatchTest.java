@@ -0,0 +1,165 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingBatchTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    // Пачка с запасом помещается в hibernate.jdbc.batch_size и в пул идентификаторов последовательности.
+    private static final int MAX_BATCH_STATEMENTS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchReturnsCreatedBookingsWithIds() throws Exception {
+        User booker = userRepository.save(user("booker"));
+        User owner = userRepository.save(user("owner"));
+        Item first = item(owner);
+        Item second = item(owner);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(booking(first, 1), booking(second, 1),
+                                booking(first, 3)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].item.id").value(first.getId()))
+                .andExpect(jsonPath("$[1].item.id").value(second.getId()))
+                .andExpect(jsonPath("$[2].status").value(BookingStatus.WAITING.name()));
+
+        assertEquals(3, bookingsOf(booker).size());
+    }
+
+    @Test
+    void batchOverlappingApprovedBookingIsRejectedAsWhole() throws Exception {
+        User booker = userRepository.save(user("booker"));
+        User owner = userRepository.save(user("owner"));
+        Item free = item(owner);
+        Item taken = item(owner);
+        CreateBookingDto overlapping = booking(taken, 1);
+        bookingRepository.save(Booking.builder()
+                .item(taken)
+                .booker(userRepository.save(user("other")))
+                .start(overlapping.getStart().minusHours(1))
+                .end(overlapping.getEnd().minusHours(1))
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(booking(free, 1), overlapping))))
+                .andExpect(status().isConflict());
+
+        assertEquals(List.of(), bookingsOf(booker));
+    }
+
+    @Test
+    void batchWithMissingItemIsNotFound() throws Exception {
+        User booker = userRepository.save(user("booker"));
+        Item existing = item(userRepository.save(user("owner")));
+        CreateBookingDto missing = booking(existing, 1);
+        missing.setItemId(Long.MAX_VALUE);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header(USER_ID_HEADER, booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(booking(existing, 1), missing))))
+                .andExpect(status().isNotFound());
+
+        assertEquals(List.of(), bookingsOf(booker));
+    }
+
+    @Test
+    void batchRunsFewStatementsRegardlessOfSize() {
+        User booker = userRepository.save(user("booker"));
+        User owner = userRepository.save(user("owner"));
+        List<CreateBookingDto> bookings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            bookings.add(booking(item(owner), 1));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BookingDto> created = bookingService.addBookings(booker.getId(), bookings);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(20, created.size());
+        assertTrue(statements > 0, "Статистика Hibernate должна быть включена");
+        assertTrue(statements <= MAX_BATCH_STATEMENTS, "Пачка из 20 букингов выполнила " + statements + " запросов");
+    }
+
+    private List<BookingDto> bookingsOf(User booker) {
+        return bookingService.getBookingsByUserAndState(booker.getId(), BookingState.ALL, BookingCursor.first(),
+                Pageable.unpaged());
+    }
+
+    private static CreateBookingDto booking(Item item, int daysFromNow) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysFromNow).truncatedTo(ChronoUnit.SECONDS);
+        return CreateBookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(1))
+                .build();
+    }
+
+    private Item item(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
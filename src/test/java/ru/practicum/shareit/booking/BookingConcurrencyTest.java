@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Параллельные запросы на один предмет и один период: подтвердить удается ровно один букинг, остальные
+// получают 409, а новые букинги на занятый период отклоняются.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingConcurrencyTest {
+    private static final int REQUESTS = 8;
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void onlyOneOverlappingBookingIsApproved() throws Exception {
+        RestClient client = restClientBuilder
+                .baseUrl("http://localhost:" + port)
+                .requestFactory(new JdkClientHttpRequestFactory())
+                .build();
+        User owner = userRepository.save(user("owner"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        List<Long> bookerIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            bookerIds.add(userRepository.save(user("booker")).getId());
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        CreateBookingDto period = CreateBookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(2))
+                .build();
+
+        List<ResponseEntity<BookingDto>> created = concurrently(bookerIds, bookerId -> client.post()
+                .uri("/bookings")
+                .header(USER_HEADER, bookerId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(period)
+                .exchange((request, response) -> ResponseEntity.status(response.getStatusCode())
+                        .body(response.bodyTo(BookingDto.class))));
+        created.forEach(response -> assertEquals(HttpStatus.OK, response.getStatusCode()));
+
+        List<Long> bookingIds = created.stream()
+                .map(response -> response.getBody().getId())
+                .toList();
+        List<HttpStatus> approvals = concurrently(bookingIds, bookingId -> client.patch()
+                .uri("/bookings/{bookingId}?approved=true", bookingId)
+                .header(USER_HEADER, owner.getId().toString())
+                .exchange((request, response) -> HttpStatus.valueOf(response.getStatusCode().value())));
+
+        assertEquals(1, approvals.stream().filter(HttpStatus.OK::equals).count());
+        assertEquals(REQUESTS - 1, approvals.stream().filter(HttpStatus.CONFLICT::equals).count());
+        assertEquals(1, bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+
+        List<HttpStatus> lateBookings = concurrently(bookerIds, bookerId -> client.post()
+                .uri("/bookings")
+                .header(USER_HEADER, bookerId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(period)
+                .exchange((request, response) -> HttpStatus.valueOf(response.getStatusCode().value())));
+
+        lateBookings.forEach(status -> assertEquals(HttpStatus.CONFLICT, status));
+    }
+
+    // Все запросы стартуют одновременно после общего сигнала.
+    private static <T, R> List<R> concurrently(List<T> arguments, Function<T, R> call) throws Exception {
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(arguments.size())) {
+            List<Future<R>> futures = new ArrayList<>();
+            for (T argument : arguments) {
+                Callable<R> task = () -> {
+                    startSignal.await();
+                    return call.apply(argument);
+                };
+                futures.add(executor.submit(task));
+            }
+            startSignal.countDown();
+            List<R> results = new ArrayList<>();
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking.calendar;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Календарь сверяется с запросами BookingRepository на одних и тех же букингах при фиксированном now.
+// Сохраненная фаза у всех букингов FUTURE, поэтому запросы репозитория отбирают букинги только по времени.
+@SpringBootTest
+class BookingCalendarTest {
+    private static final LocalDateTime NOW = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.SECONDS);
+    private static final BookingCursor FIRST = BookingCursor.first();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BookingCalendar calendar;
+    private User booker;
+    private User owner;
+    private Booking startsNow;
+    private Booking endsNow;
+    private Booking ongoing;
+    private Booking endedJustBefore;
+    private Booking endedLongAgo;
+    private List<Booking> sameStart;
+
+    @BeforeEach
+    void setUp() {
+        booker = userRepository.save(user("booker"));
+        owner = userRepository.save(user("owner"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        startsNow = save(item, NOW, NOW.plusHours(1));
+        endsNow = save(item, NOW.minusHours(2), NOW);
+        ongoing = save(item, NOW.minusHours(1), NOW.plusHours(1));
+        endedJustBefore = save(item, NOW.minusHours(3), NOW.minusSeconds(1));
+        endedLongAgo = save(item, NOW.minusHours(5), NOW.minusHours(4));
+        sameStart = List.of(save(item, NOW.plusHours(1), NOW.plusHours(2)),
+                save(item, NOW.plusHours(1), NOW.plusHours(3)),
+                save(item, NOW.plusHours(1), NOW.plusHours(4)));
+        meterRegistry = new SimpleMeterRegistry();
+        calendar = new BookingCalendar(bookingRepository, Long.MAX_VALUE, meterRegistry);
+        calendar.rebuild();
+    }
+
+    @Test
+    void statesSplitAtBoundariesLikeRepository() {
+        assertEquals(ids(sameStart.get(2), sameStart.get(1), sameStart.get(0)), bookerIds(BookingState.FUTURE));
+        assertEquals(ids(startsNow, ongoing, endsNow), bookerIds(BookingState.CURRENT));
+        assertEquals(ids(endedJustBefore, endedLongAgo), bookerIds(BookingState.PAST));
+
+        for (BookingState state : List.of(BookingState.FUTURE, BookingState.CURRENT, BookingState.PAST)) {
+            assertEquals(repositoryBookerIds(state, FIRST.getStart(), FIRST.getId(), Pageable.unpaged()),
+                    bookerIds(state), state.name());
+            assertEquals(repositoryOwnerIds(state, FIRST.getStart(), FIRST.getId(), Pageable.unpaged()),
+                    calendar.findOwnerBookings(owner.getId(), state, NOW, FIRST.getStart(), FIRST.getId(),
+                            Pageable.unpaged()), state.name());
+        }
+    }
+
+    @Test
+    void cursorInsideEqualStartsContinuesById() {
+        Booking middle = sameStart.get(1);
+
+        List<Long> afterMiddle = calendar.findBookerBookings(booker.getId(), BookingState.FUTURE, NOW,
+                middle.getStart(), middle.getId(), Pageable.unpaged());
+
+        assertEquals(ids(sameStart.get(0)), afterMiddle);
+        assertEquals(repositoryBookerIds(BookingState.FUTURE, middle.getStart(), middle.getId(),
+                Pageable.unpaged()), afterMiddle);
+    }
+
+    @Test
+    void cursorAndPageMatchRepositoryInEveryState() {
+        for (BookingState state : List.of(BookingState.FUTURE, BookingState.CURRENT, BookingState.PAST)) {
+            List<Long> all = bookerIds(state);
+            Booking first = bookingRepository.findById(all.getFirst()).orElseThrow();
+            Pageable page = PageRequest.of(0, 1);
+            List<Long> next = calendar.findBookerBookings(booker.getId(), state, NOW, first.getStart(), first.getId(),
+                    page);
+
+            assertEquals(repositoryBookerIds(state, first.getStart(), first.getId(), page), next, state.name());
+            assertEquals(all.subList(1, 2), next, state.name());
+        }
+    }
+
+    // Число букингов совпадает, но один букинг подменен другим: расхождение видно только по сумме ID.
+    @Test
+    void reconcileRebuildsWhenRowsDifferAtEqualCount() {
+        Item item = ongoing.getItem();
+        bookingRepository.delete(endedLongAgo);
+        Booking replacement = save(item, NOW.minusHours(6), NOW.minusHours(5));
+
+        calendar.reconcile();
+        assertEquals(0.0, meterRegistry.counter("shareit.booking.calendar.reconcile.mismatches").count());
+        calendar.reconcile();
+
+        assertEquals(1.0, meterRegistry.counter("shareit.booking.calendar.reconcile.mismatches").count());
+        assertEquals(ids(endedJustBefore, replacement), bookerIds(BookingState.PAST));
+    }
+
+    private List<Long> bookerIds(BookingState state) {
+        return calendar.findBookerBookings(booker.getId(), state, NOW, FIRST.getStart(), FIRST.getId(),
+                Pageable.unpaged());
+    }
+
+    private List<Long> repositoryBookerIds(BookingState state, LocalDateTime cursorStart, Long cursorId,
+                                           Pageable page) {
+        Long bookerId = booker.getId();
+        List<Booking> bookings = switch (state) {
+            case FUTURE -> bookingRepository.findAllByBookerIdAndStartAfter(bookerId, NOW, cursorStart,
+                    cursorId, page);
+            case CURRENT -> bookingRepository.findAllByBookerIdAndCurrentTime(bookerId, NOW, cursorStart,
+                    cursorId, page);
+            case PAST -> bookingRepository.findAllByBookerIdAndEndBefore(bookerId, NOW, cursorStart,
+                    cursorId, page);
+            default -> throw new IllegalArgumentException(state.name());
+        };
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+    private List<Long> repositoryOwnerIds(BookingState state, LocalDateTime cursorStart, Long cursorId,
+                                          Pageable page) {
+        Long ownerId = owner.getId();
+        List<Booking> bookings = switch (state) {
+            case FUTURE -> bookingRepository.findAllByItemOwnerIdAndStartAfter(ownerId, NOW, cursorStart,
+                    cursorId, page);
+            case CURRENT -> bookingRepository.findAllByOwnerIdAndCurrentTime(ownerId, NOW, cursorStart,
+                    cursorId, page);
+            case PAST -> bookingRepository.findAllByItemOwnerIdAndEndBefore(ownerId, NOW, cursorStart,
+                    cursorId, page);
+            default -> throw new IllegalArgumentException(state.name());
+        };
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+    private Booking save(Item item, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    private static List<Long> ids(Booking... bookings) {
+        return Arrays.stream(bookings).map(Booking::getId).toList();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Ретранслятор в тестовом профиле выключен; здесь он создается вручную и разбирает outbox синхронно.
+@SpringBootTest
+class BookingEventRelayTest {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long POISON_BOOKING_ID = 666L;
+
+    @Autowired
+    private BookingEventRepository eventRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> delivered = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private BookingEventRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.deleteAll();
+        delivered.clear();
+        meterRegistry = new SimpleMeterRegistry();
+        BookingEventSink sink = new BookingEventSink() {
+            @Override
+            public String name() {
+                return "test";
+            }
+
+            @Override
+            public void publish(List<BookingEventMessage> events) {
+                if (events.stream().anyMatch(event -> event.getBookingId() == POISON_BOOKING_ID)) {
+                    throw new IllegalArgumentException("Приемник не принимает букинг " + POISON_BOOKING_ID);
+                }
+                events.forEach(event -> delivered.add(event.getEventId()));
+            }
+        };
+        relay = new BookingEventRelay(eventRepository, List.of(sink), transactionTemplate, objectMapper, 10,
+                Duration.ofSeconds(1), Duration.ofMinutes(1), MAX_ATTEMPTS, meterRegistry);
+    }
+
+    @Test
+    void unreadablePayloadIsDeadLetteredWithoutBlockingOthers() {
+        BookingEvent first = save(1L, payload(1L));
+        BookingEvent unreadable = save(2L, "{not json");
+        BookingEvent last = save(3L, payload(3L));
+
+        relay.relayAll();
+
+        assertEquals(List.of(first.getId(), last.getId()), delivered);
+        assertFalse(eventRepository.existsById(first.getId()));
+        assertFalse(eventRepository.existsById(last.getId()));
+        BookingEvent deadLetter = eventRepository.findById(unreadable.getId()).orElseThrow();
+        assertNotNull(deadLetter.getDeadLetteredAt());
+        assertEquals(1, deadLetter.getAttempts());
+        assertEquals(1.0, meterRegistry.counter("shareit.outbox.relay.dead-lettered").count());
+        assertEquals(2, meterRegistry.timer("shareit.outbox.relay.lag").count());
+    }
+
+    @Test
+    void rejectedEventIsRetriedUntilDeadLettered() {
+        BookingEvent first = save(1L, payload(1L));
+        BookingEvent poison = save(POISON_BOOKING_ID, payload(POISON_BOOKING_ID));
+        BookingEvent last = save(3L, payload(3L));
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            assertThrows(IllegalStateException.class, relay::relayAll);
+
+            BookingEvent retried = eventRepository.findById(poison.getId()).orElseThrow();
+            assertEquals(attempt, retried.getAttempts());
+            assertNull(retried.getDeadLetteredAt());
+            assertEquals(List.of(first.getId()), delivered);
+        }
+
+        relay.relayAll();
+
+        assertEquals(List.of(first.getId(), last.getId()), delivered);
+        BookingEvent deadLetter = eventRepository.findById(poison.getId()).orElseThrow();
+        assertEquals(MAX_ATTEMPTS, deadLetter.getAttempts());
+        assertNotNull(deadLetter.getDeadLetteredAt());
+        assertNotNull(deadLetter.getLastError());
+
+        relay.relayAll();
+
+        assertEquals(List.of(first.getId(), last.getId()), delivered);
+        assertEquals(1.0, meterRegistry.counter("shareit.outbox.relay.dead-lettered").count());
+        // Откаченные пачки не попадают в метрику задержки: каждое доставленное событие учтено один раз.
+        assertEquals(2, meterRegistry.timer("shareit.outbox.relay.lag").count());
+    }
+
+    private BookingEvent save(Long bookingId, String payload) {
+        return eventRepository.save(BookingEvent.builder()
+                .type(BookingEventType.CREATED)
+                .bookingId(bookingId)
+                .payload(payload)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    private String payload(Long bookingId) {
+        try {
+            return objectMapper.writeValueAsString(BookingEventMessage.builder()
+                    .type(BookingEventType.CREATED)
+                    .bookingId(bookingId)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Число SQL-запросов списков букингов не должно зависеть от числа букингов: предмет и арендатор
+// подгружаются тем же запросом, а не отдельным запросом на каждую строку.
+@SpringBootTest
+class BookingServiceStatementCountTest {
+    private static final int MANY = 50;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bookerListRunsConstantNumberOfStatements() {
+        Participants single = seed(1);
+        Participants many = seed(MANY);
+
+        assertEquals(statementsOf(single.bookerId(), this::bookerBookings, 1),
+                statementsOf(many.bookerId(), this::bookerBookings, MANY));
+    }
+
+    @Test
+    void ownerListRunsConstantNumberOfStatements() {
+        Participants single = seed(1);
+        Participants many = seed(MANY);
+
+        assertEquals(statementsOf(single.ownerId(), this::ownerBookings, 1),
+                statementsOf(many.ownerId(), this::ownerBookings, MANY));
+    }
+
+    private List<BookingDto> bookerBookings(Long bookerId) {
+        return bookingService.getBookingsByUserAndState(bookerId, BookingState.ALL, BookingCursor.first(),
+                Pageable.unpaged());
+    }
+
+    private List<BookingDto> ownerBookings(Long ownerId) {
+        return bookingService.getBookingsForAllItemsOfOwner(ownerId, BookingState.ALL, BookingCursor.first(),
+                Pageable.unpaged());
+    }
+
+    private long statementsOf(Long userId, Function<Long, List<BookingDto>> call, int bookingCount) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingDto> bookings = call.apply(userId);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(statements > 0, "Статистика Hibernate должна быть включена");
+        assertEquals(bookingCount, bookings.size());
+        bookings.forEach(booking -> {
+            assertTrue(booking.getItem().getName().startsWith("Предмет"));
+            assertEquals("booker", booking.getBooker().getName());
+        });
+        return statements;
+    }
+
+    // Каждый букинг оформлен на отдельный предмет, чтобы ленивые связи нельзя было взять из кеша сессии.
+    private Participants seed(int bookingCount) {
+        User owner = userRepository.save(user("owner"));
+        User booker = userRepository.save(user("booker"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < bookingCount; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Предмет " + i)
+                    .description("Описание предмета " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .item(item)
+                    .booker(booker)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        return new Participants(owner.getId(), booker.getId());
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+
+    private record Participants(Long ownerId, Long bookerId) {
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking.sweeper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingPhase;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "shareit.booking-sweeper.enabled=true",
+        "shareit.booking-sweeper.interval=PT1H",
+        "shareit.booking-sweeper.expire-after=5m"
+})
+class BookingSweeperTest {
+    @Autowired
+    private BookingSweeper bookingSweeper;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void waitingBookingExpiresOnlyAfterGracePeriod() {
+        User booker = userRepository.save(user("booker"));
+        Item item = item(userRepository.save(user("owner")));
+        LocalDateTime now = LocalDateTime.now();
+        Booking justStarted = save(item, booker, now.minusMinutes(1), now.plusHours(1), BookingStatus.WAITING,
+                BookingPhase.CURRENT);
+        Booking stale = save(item, booker, now.minusMinutes(10), now.plusHours(1), BookingStatus.WAITING,
+                BookingPhase.CURRENT);
+        Booking approved = save(item, booker, now.minusMinutes(10), now.plusHours(1), BookingStatus.APPROVED,
+                BookingPhase.CURRENT);
+
+        bookingSweeper.sweep();
+
+        assertEquals(BookingStatus.WAITING, status(justStarted));
+        assertEquals(BookingStatus.EXPIRED, status(stale));
+        assertEquals(BookingStatus.APPROVED, status(approved));
+    }
+
+    // Сохраненная фаза может отставать от времени до следующего обхода: списки по состояниям должны совпадать
+    // и до, и после продвижения фаз.
+    @Test
+    void stateListsFollowTimeWhetherOrNotPhaseWasAdvanced() {
+        User booker = userRepository.save(user("booker"));
+        Item item = item(userRepository.save(user("owner")));
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = save(item, booker, now.minusHours(3), now.minusHours(2), BookingStatus.APPROVED,
+                BookingPhase.FUTURE);
+        Booking current = save(item, booker, now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED,
+                BookingPhase.FUTURE);
+        Booking future = save(item, booker, now.plusHours(1), now.plusHours(2), BookingStatus.APPROVED,
+                BookingPhase.FUTURE);
+
+        assertStateLists(booker, item, past, current, future);
+
+        bookingSweeper.sweep();
+
+        assertEquals(BookingPhase.PAST, bookingRepository.findById(past.getId()).orElseThrow().getPhase());
+        assertEquals(BookingPhase.CURRENT, bookingRepository.findById(current.getId()).orElseThrow().getPhase());
+        assertEquals(BookingPhase.FUTURE, bookingRepository.findById(future.getId()).orElseThrow().getPhase());
+        assertStateLists(booker, item, past, current, future);
+    }
+
+    private void assertStateLists(User booker, Item item, Booking past, Booking current, Booking future) {
+        Long ownerId = item.getOwner().getId();
+        assertEquals(List.of(past.getId()), bookerIds(booker.getId(), BookingState.PAST));
+        assertEquals(List.of(current.getId()), bookerIds(booker.getId(), BookingState.CURRENT));
+        assertEquals(List.of(future.getId()), bookerIds(booker.getId(), BookingState.FUTURE));
+        assertEquals(List.of(past.getId()), ownerIds(ownerId, BookingState.PAST));
+        assertEquals(List.of(current.getId()), ownerIds(ownerId, BookingState.CURRENT));
+        assertEquals(List.of(future.getId()), ownerIds(ownerId, BookingState.FUTURE));
+    }
+
+    private List<Long> bookerIds(Long bookerId, BookingState state) {
+        return bookingService.getBookingsByUserAndState(bookerId, state, BookingCursor.first(), Pageable.unpaged())
+                .stream()
+                .map(BookingDto::getId)
+                .toList();
+    }
+
+    private List<Long> ownerIds(Long ownerId, BookingState state) {
+        return bookingService.getBookingsForAllItemsOfOwner(ownerId, state, BookingCursor.first(), Pageable.unpaged())
+                .stream()
+                .map(BookingDto::getId)
+                .toList();
+    }
+
+    private BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    private Booking save(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                         BookingPhase phase) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .phase(phase)
+                .build());
+    }
+
+    private Item item(User owner) {
+        return itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
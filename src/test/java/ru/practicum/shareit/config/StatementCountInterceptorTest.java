@@ -0,0 +1,51 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementCountInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StatementCountInterceptor interceptor = new StatementCountInterceptor(meterRegistry);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings/export");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void countsStatementsOfSynchronousRequest() {
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/bookings");
+        interceptor.preHandle(request, response, null);
+        interceptor.inspect("select 1");
+        interceptor.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(2.0, summary("/bookings").totalAmount());
+    }
+
+    @Test
+    void releasesThreadWhenAsyncHandlingStartsAndCompletesOnAsyncDispatch() {
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/bookings/export");
+        interceptor.preHandle(request, response, null);
+        interceptor.inspect("select 1");
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+
+        // Поток вернулся в пул и обслуживает другие задачи: их запросы не относятся к этому HTTP-запросу.
+        interceptor.inspect("select unrelated");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.inspect("select 2");
+        interceptor.afterCompletion(request, response, null, null);
+
+        DistributionSummary summary = summary("/bookings/export");
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+
+    private DistributionSummary summary(String uri) {
+        return meterRegistry.get("shareit.http.statements").tag("uri", uri).summary();
+    }
+}
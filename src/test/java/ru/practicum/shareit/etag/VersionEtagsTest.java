@@ -0,0 +1,195 @@
+package ru.practicum.shareit.etag;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class VersionEtagsTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void wildcardDoesNotHideMissingUser() throws Exception {
+        mockMvc.perform(get("/users/{userId}", Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void wildcardDoesNotHideMissingItemOrRequester() throws Exception {
+        User owner = userRepository.save(user("owner"));
+        Item item = itemRepository.save(item(owner));
+
+        mockMvc.perform(get("/items/{itemId}", Long.MAX_VALUE)
+                        .header(USER_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(USER_HEADER, Long.MAX_VALUE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void userEtagFollowsVersion() throws Exception {
+        User user = userRepository.save(user("user"));
+        String etag = etag(get("/users/{userId}", user.getId()));
+
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+        String changed = mockMvc.perform(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void notModifiedUserRunsOnlyVersionLookup() throws Exception {
+        User user = userRepository.save(user("user"));
+        String etag = etag(get("/users/{userId}", user.getId()));
+
+        assertEquals(1, statementsFor(get("/users/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag)));
+    }
+
+    @Test
+    void ownerGetsNoItemEtag() throws Exception {
+        User owner = userRepository.save(user("owner"));
+        Item item = itemRepository.save(item(owner));
+
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(USER_HEADER, owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void notModifiedItemRunsOnlyVersionLookup() throws Exception {
+        User owner = userRepository.save(user("owner"));
+        User reader = userRepository.save(user("reader"));
+        Item item = itemRepository.save(item(owner));
+        String etag = etag(get("/items/{itemId}", item.getId()).header(USER_HEADER, reader.getId()));
+
+        assertEquals(1, statementsFor(get("/items/{itemId}", item.getId())
+                .header(USER_HEADER, reader.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, etag)));
+    }
+
+    @Test
+    void itemEtagFollowsItemCommentsAndAuthors() throws Exception {
+        User owner = userRepository.save(user("owner"));
+        User reader = userRepository.save(user("reader"));
+        Item item = itemRepository.save(item(owner));
+        String etag = etag(get("/items/{itemId}", item.getId()).header(USER_HEADER, reader.getId()));
+        mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(USER_HEADER, reader.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/items/{itemId}", item.getId())
+                        .header(USER_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Новое описание\"}"))
+                .andExpect(status().isOk());
+        String updated = changedEtag(item, reader, etag);
+
+        commentRepository.save(Comment.builder()
+                .text("Отличная дрель")
+                .item(item)
+                .author(reader)
+                .created(LocalDateTime.now())
+                .build());
+        String commented = changedEtag(item, reader, updated);
+
+        mockMvc.perform(patch("/users/{userId}", reader.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+        changedEtag(item, reader, commented);
+    }
+
+    private String changedEtag(Item item, User reader, String previous) throws Exception {
+        String changed = mockMvc.perform(get("/items/{itemId}", item.getId())
+                        .header(USER_HEADER, reader.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, previous))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(changed);
+        assertNotEquals(previous, changed);
+        return changed;
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private long statementsFor(RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isNotModified());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+
+    private static Item item(User owner) {
+        return Item.builder()
+                .name("Дрель")
+                .description("Ударная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+}
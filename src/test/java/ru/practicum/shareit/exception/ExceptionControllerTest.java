@@ -0,0 +1,49 @@
+package ru.practicum.shareit.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExceptionControllerTest {
+    private final ExceptionController controller = new ExceptionController();
+
+    @Test
+    void approvedBookingOverlapIsConflict() {
+        SQLException cause = new SQLException("ERROR: conflicting key value violates exclusion constraint \"" +
+                ExceptionController.APPROVED_BOOKING_OVERLAP_CONSTRAINT + "\"", "23P01");
+
+        ResponseEntity<ErrorResponse> response = controller.handlerDataIntegrityViolationException(
+                new DataIntegrityViolationException("could not execute statement", cause));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Предмет уже забронирован на указанные даты.", response.getBody().getError());
+    }
+
+    @Test
+    void hibernateConstraintNameIsRecognised() {
+        org.hibernate.exception.ConstraintViolationException cause =
+                new org.hibernate.exception.ConstraintViolationException("could not execute statement",
+                        new SQLException("exclusion violation", "23P01"), "EX_BOOKINGS_APPROVED_OVERLAP");
+
+        ResponseEntity<ErrorResponse> response = controller.handlerDataIntegrityViolationException(
+                new DataIntegrityViolationException("could not execute statement", cause));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void otherIntegrityViolationsAreInternalErrors() {
+        SQLException cause = new SQLException("ERROR: duplicate key value violates unique constraint \"uq_user_email\"",
+                "23505");
+
+        ResponseEntity<ErrorResponse> response = controller.handlerDataIntegrityViolationException(
+                new DataIntegrityViolationException("could not execute statement", cause));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Внутренняя ошибка сервера", response.getBody().getError());
+    }
+}
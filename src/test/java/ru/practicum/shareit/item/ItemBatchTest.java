@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.CreateItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemBatchTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    // Пачка с запасом помещается в hibernate.jdbc.batch_size и в пул идентификаторов последовательности.
+    private static final int MAX_BATCH_STATEMENTS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void batchReturnsCreatedItemsWithIds() throws Exception {
+        User owner = userRepository.save(user("owner"));
+        ItemRequest request = request(userRepository.save(user("requestor")));
+
+        mockMvc.perform(post("/items/batch")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(item("Дрель", null),
+                                item("Перфоратор", request.getId())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").isNumber())
+                .andExpect(jsonPath("$[0].name").value("Дрель"))
+                .andExpect(jsonPath("$[1].id").isNumber())
+                .andExpect(jsonPath("$[1].requestId").value(request.getId()));
+
+        assertEquals(2, itemRepository.findByOwnerId(owner.getId()).size());
+    }
+
+    @Test
+    void batchWithMissingRequestIsNotFound() throws Exception {
+        User owner = userRepository.save(user("owner"));
+
+        mockMvc.perform(post("/items/batch")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(item("Дрель", null),
+                                item("Перфоратор", Long.MAX_VALUE)))))
+                .andExpect(status().isNotFound());
+
+        assertEquals(List.of(), itemRepository.findByOwnerId(owner.getId()));
+    }
+
+    @Test
+    void batchRunsFewStatementsRegardlessOfSize() {
+        User owner = userRepository.save(user("owner"));
+        ItemRequest request = request(userRepository.save(user("requestor")));
+        List<CreateItemDto> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(item("Предмет " + i, i % 2 == 0 ? request.getId() : null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> created = itemService.addNewItems(owner.getId(), items);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(20, created.size());
+        assertTrue(statements > 0, "Статистика Hibernate должна быть включена");
+        assertTrue(statements <= MAX_BATCH_STATEMENTS, "Пачка из 20 предметов выполнила " + statements + " запросов");
+    }
+
+    private ItemRequest request(User requestor) {
+        return requestRepository.save(ItemRequest.builder()
+                .description("Нужен инструмент")
+                .requestor(requestor)
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    private static CreateItemDto item(String name, Long requestId) {
+        return CreateItemDto.builder()
+                .name(name)
+                .description("Описание")
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
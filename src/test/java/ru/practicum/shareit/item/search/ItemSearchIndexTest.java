@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private static final long MAX_MEMORY_BYTES = 1 << 20;
+
+    @Test
+    void rebuildDoesNotOverwriteItemWrittenAfterCommit() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, MAX_MEMORY_BYTES, new SimpleMeterRegistry());
+        Item stale = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Старое описание")
+                .available(true)
+                .build();
+        // Страница прочитана до коммита, а afterCommit успел записать новое значение раньше, чем rebuild ее применил.
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            index.put(ItemDto.builder()
+                    .id(1L)
+                    .name("Перфоратор")
+                    .description("Новое описание")
+                    .available(true)
+                    .build());
+            return List.of(stale);
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(), index.search("дрель", Pageable.unpaged()));
+        assertEquals("Перфоратор", index.search("перфоратор", Pageable.unpaged()).getFirst().getName());
+    }
+
+    @Test
+    void writesAfterRebuildStillApply() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        ItemSearchIndex index = new ItemSearchIndex(itemRepository, MAX_MEMORY_BYTES, new SimpleMeterRegistry());
+        when(itemRepository.findAllByIdGreaterThanOrderById(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                Item.builder().id(1L).name("Дрель").description("Описание").available(true).build()));
+        index.rebuild();
+
+        index.put(ItemDto.builder().id(1L).name("Перфоратор").description("Описание").available(true).build());
+
+        assertEquals(List.of(), index.search("дрель", Pageable.unpaged()));
+        assertEquals(1, index.getSize());
+    }
+
+    @Test
+    void searchKeepsRequestIdLikeDatabaseSearch() {
+        ItemSearchIndex index = new ItemSearchIndex(mock(ItemRepository.class), MAX_MEMORY_BYTES,
+                new SimpleMeterRegistry());
+        index.put(ItemDto.builder().id(1L).name("Дрель").description("По запросу").available(true).requestId(7L)
+                .build());
+        index.put(ItemDto.builder().id(2L).name("Дрель").description("Без запроса").available(true).build());
+
+        List<ItemDto> found = index.search("дрель", Pageable.unpaged());
+
+        assertEquals(7L, found.get(0).getRequestId());
+        assertNull(found.get(1).getRequestId());
+    }
+}
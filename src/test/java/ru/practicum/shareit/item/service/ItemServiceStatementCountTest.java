@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemWithBookingDto;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Число SQL-запросов списка предметов владельца не должно зависеть от числа предметов и отзывов.
+@SpringBootTest
+class ItemServiceStatementCountTest {
+    private static final int COMMENTS_PER_ITEM = 3;
+
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getItemsRunsConstantNumberOfStatements() {
+        long single = statementsOfGetItems(1);
+        long many = statementsOfGetItems(30);
+
+        assertEquals(single, many);
+    }
+
+    @Test
+    void getItemsOverviewRunsConstantNumberOfStatements() {
+        long single = statementsOf(seedOwner(1), itemService::getItemsOverview, 1);
+        long many = statementsOf(seedOwner(30), itemService::getItemsOverview, 30);
+
+        assertEquals(single, many);
+    }
+
+    private long statementsOfGetItems(int itemCount) {
+        return statementsOf(seedOwner(itemCount), itemService::getItems, itemCount);
+    }
+
+    private long statementsOf(Long ownerId, Function<Long, List<ItemWithBookingDto>> call,
+                              int itemCount) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemWithBookingDto> items = call.apply(ownerId);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(statements > 0, "Статистика Hibernate должна быть включена");
+        assertEquals(itemCount, items.size());
+        items.forEach(item -> assertEquals(COMMENTS_PER_ITEM, item.getComments().size()));
+        return statements;
+    }
+
+    private Long seedOwner(int itemCount) {
+        User owner = userRepository.save(user("owner"));
+        User author = userRepository.save(user("author"));
+        for (int i = 0; i < itemCount; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Предмет " + i)
+                    .description("Описание предмета " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 0; j < COMMENTS_PER_ITEM; j++) {
+                commentRepository.save(Comment.builder()
+                        .text("Отзыв " + j)
+                        .item(item)
+                        .author(author)
+                        .created(LocalDateTime.now())
+                        .build());
+            }
+        }
+        return owner.getId();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffsetPageRequestTest {
+    @Test
+    void keepsOffsetThatIsNotMultipleOfSize() {
+        Pageable page = OffsetPageRequest.of(5, 10);
+
+        assertEquals(5, page.getOffset());
+        assertEquals(10, page.getPageSize());
+        assertEquals(0, page.getPageNumber());
+        assertTrue(page.hasPrevious());
+    }
+
+    @Test
+    void movesByPageSize() {
+        Pageable page = OffsetPageRequest.of(5, 10);
+
+        assertEquals(15, page.next().getOffset());
+        assertEquals(0, page.previousOrFirst().getOffset());
+        assertEquals(0, page.first().getOffset());
+        assertEquals(30, page.withPage(3).getOffset());
+        assertFalse(page.first().hasPrevious());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> OffsetPageRequest.of(-1, 10));
+        assertThrows(IllegalArgumentException.class, () -> OffsetPageRequest.of(0, 0));
+    }
+}
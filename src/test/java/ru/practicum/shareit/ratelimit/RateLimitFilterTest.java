@@ -0,0 +1,52 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.rate-limit.enabled=true",
+        "shareit.rate-limit.requests-per-second=0.5",
+        "shareit.rate-limit.burst=2"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+
+    // Интервал 2 с: третий запрос подряд ждет почти 2 с, Retry-After округляется вверх до целых секунд.
+    @Test
+    void userOverRateGets429WithRetryAfter() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("user")
+                .email("user-" + UUID.randomUUID() + "@shareit.ru")
+                .build());
+
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(USER_ID_HEADER, user.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(USER_ID_HEADER, user.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(USER_ID_HEADER, user.getId()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.code").value(429));
+
+        mockMvc.perform(get("/users/{userId}", user.getId()).header(USER_ID_HEADER, user.getId() + 1))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Часы подменяются, поэтому интервалы GCRA проверяются точно, без sleep.
+class UserRateLimiterTest {
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long USER_ID = 1L;
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    void burstPassesThenRequestsAreSpacedByEmissionInterval() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 3, 1_000, clock::get);
+
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(INTERVAL, limiter.tryAcquire(USER_ID));
+
+        clock.addAndGet(INTERVAL - 1);
+        assertEquals(1, limiter.tryAcquire(USER_ID));
+
+        clock.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(INTERVAL, limiter.tryAcquire(USER_ID));
+    }
+
+    @Test
+    void rejectedRequestDoesNotConsumeTokens() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 1, 1_000, clock::get);
+
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(INTERVAL, limiter.tryAcquire(USER_ID));
+        }
+
+        clock.addAndGet(INTERVAL);
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+    }
+
+    @Test
+    void idleBucketIsFullAgain() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 2, 1_000, clock::get);
+        limiter.tryAcquire(USER_ID);
+        limiter.tryAcquire(USER_ID);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(0, limiter.tryAcquire(USER_ID));
+        assertEquals(INTERVAL, limiter.tryAcquire(USER_ID));
+    }
+
+    @Test
+    void fullStripeDropsIdleUsersFirst() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 2, 16 * 100, clock::get);
+        fillFirstStripe(limiter, 100);
+
+        clock.addAndGet(INTERVAL);
+        limiter.tryAcquire(stripeUser(100));
+
+        assertEquals(1, limiter.size());
+    }
+
+    // Ключи, кратные 16, попадают в одну полосу из 100 записей. Активные пользователи вытесняются пачкой
+    // до 90 записей, поэтому следующие девять новых пользователей полосу не обходят.
+    @Test
+    void fullStripeOfActiveUsersIsTrimmedInBulk() {
+        UserRateLimiter limiter = new UserRateLimiter(10, 2, 16 * 100, clock::get);
+        fillFirstStripe(limiter, 100);
+
+        limiter.tryAcquire(stripeUser(100));
+        assertEquals(91, limiter.size());
+
+        for (int i = 101; i < 110; i++) {
+            limiter.tryAcquire(stripeUser(i));
+        }
+        assertEquals(100, limiter.size());
+
+        limiter.tryAcquire(stripeUser(110));
+        assertEquals(91, limiter.size());
+    }
+
+    private static void fillFirstStripe(UserRateLimiter limiter, int users) {
+        for (int i = 0; i < users; i++) {
+            limiter.tryAcquire(stripeUser(i));
+        }
+        assertEquals(users, limiter.size());
+    }
+
+    private static long stripeUser(int index) {
+        return 16L * (index + 1);
+    }
+}
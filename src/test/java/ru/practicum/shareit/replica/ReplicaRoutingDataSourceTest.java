@@ -0,0 +1,144 @@
+package ru.practicum.shareit.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Основная база и две реплики - отдельные базы H2. В каждой таблица node с именем узла и таблица replication
+// с отставанием, которое ReplicaLagProbe читает вместо запроса к WAL.
+class ReplicaRoutingDataSourceTest {
+    private static final String LAG_QUERY = "SELECT lag FROM replication";
+    private static final Long USER_ID = 1L;
+
+    private HikariDataSource primary;
+    private HikariDataSource firstReplica;
+    private HikariDataSource secondReplica;
+    private ReplicaSet replicaSet;
+    private ReadYourWrites readYourWrites;
+    private ReplicaLagProbe probe;
+    private ReplicaRoutingDataSource dataSource;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        firstReplica = node("replica-1");
+        secondReplica = node("replica-2");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        replicaSet = new ReplicaSet(List.of(new Replica("replica-1", firstReplica),
+                new Replica("replica-2", secondReplica)), ReplicaSet.Strategy.ROUND_ROBIN, Duration.ofSeconds(2),
+                meterRegistry);
+        readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+        probe = new ReplicaLagProbe(replicaSet, LAG_QUERY);
+        dataSource = new ReplicaRoutingDataSource(primary, replicaSet, readYourWrites, meterRegistry);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        probe.probe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        readYourWrites.clearCurrentUser();
+        dataSource.close();
+        replicaSet.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicas() {
+        assertEquals(Set.of("replica-1", "replica-2"), Set.of(readOnlyNode(), readOnlyNode()));
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> {
+            new JdbcTemplate(dataSource).update("UPDATE replication SET lag = 0");
+            return currentNode();
+        }));
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimary() {
+        readYourWrites.setCurrentUser(USER_ID);
+        readYourWrites.markWrite(USER_ID);
+
+        assertEquals("primary", readOnlyNode());
+        assertEquals("primary", readOnlyNode());
+
+        readYourWrites.setCurrentUser(USER_ID + 1);
+
+        assertEquals(Set.of("replica-1", "replica-2"), Set.of(readOnlyNode(), readOnlyNode()));
+    }
+
+    @Test
+    void replicaOverMaxLagIsSkipped() {
+        new JdbcTemplate(firstReplica).update("UPDATE replication SET lag = 5000");
+        probe.probe();
+
+        assertEquals(Set.of("replica-2"), readOnlyNodes(4));
+    }
+
+    @Test
+    void replicaWithUnknownLagIsSkipped() {
+        new JdbcTemplate(firstReplica).update("UPDATE replication SET lag = NULL");
+        new JdbcTemplate(secondReplica).update("DELETE FROM replication");
+        probe.probe();
+
+        assertEquals(Set.of("primary"), readOnlyNodes(2));
+
+        new JdbcTemplate(firstReplica).update("UPDATE replication SET lag = 0");
+        probe.probe();
+
+        assertEquals(Set.of("replica-1"), readOnlyNodes(2));
+    }
+
+    @Test
+    void unreachableReplicaIsSkipped() {
+        secondReplica.close();
+        probe.probe();
+
+        assertEquals(Set.of("replica-1"), readOnlyNodes(4));
+    }
+
+    private Set<String> readOnlyNodes(int reads) {
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < reads; i++) {
+            nodes.add(readOnlyNode());
+        }
+        return nodes;
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> currentNode());
+    }
+
+    private String currentNode() {
+        return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static HikariDataSource node(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setPoolName("test-" + name);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE replication (lag BIGINT)");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        jdbcTemplate.update("INSERT INTO replication (lag) VALUES (0)");
+        return pool;
+    }
+}
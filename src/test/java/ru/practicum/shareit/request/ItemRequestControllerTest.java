@@ -0,0 +1,173 @@
+package ru.practicum.shareit.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRequestControllerTest {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final int ANSWERS_PER_REQUEST = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository requestRepository;
+    @Autowired
+    private ItemRequestService requestService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void itemCreatedForRequestIsListedAsAnswer() throws Exception {
+        User requestor = userRepository.save(user("requestor"));
+        User owner = userRepository.save(user("owner"));
+        long requestId = id(mockMvc.perform(post("/requests")
+                        .header(USER_ID_HEADER, requestor.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Нужна дрель\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty()));
+
+        long itemId = id(mockMvc.perform(post("/items")
+                        .header(USER_ID_HEADER, owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Дрель\", \"description\": \"Ударная дрель\", \"available\": true, " +
+                                "\"requestId\": " + requestId + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestId").value(requestId)));
+
+        mockMvc.perform(get("/items/{itemId}", itemId).header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/requests/{requestId}", requestId).header(USER_ID_HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Нужна дрель"))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(itemId))
+                .andExpect(jsonPath("$.items[0].ownerId").value(owner.getId()));
+    }
+
+    @Test
+    void ownRequestsAreNewestFirstAndOthersExcludeOwn() throws Exception {
+        User requestor = userRepository.save(user("requestor"));
+        User other = userRepository.save(user("other"));
+        ItemRequest older = save(requestor, LocalDateTime.now().minusHours(1));
+        ItemRequest newer = save(requestor, LocalDateTime.now());
+
+        mockMvc.perform(get("/requests").header(USER_ID_HEADER, requestor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newer.getId()))
+                .andExpect(jsonPath("$[1].id").value(older.getId()));
+        mockMvc.perform(get("/requests/all").header(USER_ID_HEADER, other.getId())
+                        .param("from", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newer.getId()));
+        mockMvc.perform(get("/requests/all").header(USER_ID_HEADER, requestor.getId())
+                        .param("from", "0").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + newer.getId() + ")]").isEmpty());
+    }
+
+    @Test
+    void unknownRequestOrUserIsNotFound() throws Exception {
+        User requestor = userRepository.save(user("requestor"));
+        ItemRequest request = save(requestor, LocalDateTime.now());
+
+        mockMvc.perform(get("/requests/{requestId}", Long.MAX_VALUE).header(USER_ID_HEADER, requestor.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header(USER_ID_HEADER, Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/requests").header(USER_ID_HEADER, Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    // Ответы на все запросы страницы загружаются одним запросом к items: число SQL-запросов не зависит
+    // от числа запросов на странице и ответов на них.
+    @Test
+    void answersOfPageLoadInOneStatement() {
+        long single = statementsOfOwnRequests(1);
+        long many = statementsOfOwnRequests(10);
+
+        assertEquals(single, many);
+    }
+
+    private long statementsOfOwnRequests(int requestCount) {
+        User requestor = userRepository.save(user("requestor"));
+        User owner = userRepository.save(user("owner"));
+        for (int i = 0; i < requestCount; i++) {
+            ItemRequest request = save(requestor, LocalDateTime.now().minusMinutes(i));
+            for (int j = 0; j < ANSWERS_PER_REQUEST; j++) {
+                itemRepository.save(Item.builder()
+                        .name("Ответ " + j)
+                        .description("Предмет по запросу")
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemRequestDto> requests = requestService.getOwnRequests(requestor.getId());
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(statements > 0, "Статистика Hibernate должна быть включена");
+        assertEquals(requestCount, requests.size());
+        requests.forEach(request -> assertEquals(ANSWERS_PER_REQUEST, request.getItems().size()));
+        return statements;
+    }
+
+    private ItemRequest save(User requestor, LocalDateTime created) {
+        return requestRepository.save(ItemRequest.builder()
+                .description("Запрос " + UUID.randomUUID())
+                .requestor(requestor)
+                .created(created)
+                .build());
+    }
+
+    private long id(ResultActions result) throws Exception {
+        JsonNode body = objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+        return body.get("id").asLong();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .name(name)
+                .email(name + "-" + UUID.randomUUID() + "@shareit.ru")
+                .build();
+    }
+}